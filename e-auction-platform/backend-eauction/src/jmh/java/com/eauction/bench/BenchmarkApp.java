@@ -0,0 +1,114 @@
+package com.eauction.bench;
+
+import com.eauction.EauctionApplication;
+import com.eauction.model.Auction;
+import com.eauction.model.User;
+import com.eauction.repository.AuctionRepository;
+import com.eauction.repository.UserRepository;
+import com.eauction.service.AuctionLifecycleScheduler;
+import com.eauction.service.LiveAuctionIndex;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Boots the full application on a private in-memory H2 database and seeds a
+ * dataset that only depends on its size arguments and a fixed seed, so runs
+ * on different commits measure the same data.
+ */
+final class BenchmarkApp {
+    static final long SEED = 42;
+
+    final ConfigurableApplicationContext context;
+    final List<Long> auctionIds = new ArrayList<>();
+    final List<Long> auctionStartPrices = new ArrayList<>();
+    final List<Long> bidderIds = new ArrayList<>();
+    final List<String> bidderNames = new ArrayList<>();
+
+    private BenchmarkApp(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    static BenchmarkApp start(String name, boolean virtualThreads) {
+        ConfigurableApplicationContext context = SpringApplication.run(EauctionApplication.class,
+                "--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+        return new BenchmarkApp(context);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /** Creates one seller, {@code bidders} bidders and {@code auctions} live auctions with a +1 minimum increment. */
+    BenchmarkApp seed(int auctions, int bidders) {
+        UserRepository users = bean(UserRepository.class);
+        AuctionRepository auctionRepository = bean(AuctionRepository.class);
+        AuctionLifecycleScheduler scheduler = bean(AuctionLifecycleScheduler.class);
+        LiveAuctionIndex index = bean(LiveAuctionIndex.class);
+        String password = bean(PasswordEncoder.class).encode("bench");
+        Random random = new Random(SEED);
+
+        User seller = users.save(user("bench-seller", password, "SELLER"));
+        List<User> bidderRows = new ArrayList<>(bidders);
+        for (int i = 0; i < bidders; i++) {
+            bidderRows.add(user("bench-bidder-" + i, password, "BIDDER"));
+        }
+        for (User u : users.saveAll(bidderRows)) {
+            bidderIds.add(u.getId());
+            bidderNames.add(u.getUsername());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Auction> auctionRows = new ArrayList<>(auctions);
+        for (int i = 0; i < auctions; i++) {
+            Auction a = new Auction();
+            a.setProductName("Bench lot " + i);
+            a.setCategory("bench-" + (i % 16));
+            a.setStartingPrice(10 + random.nextInt(990));
+            a.setCurrentBid(a.getStartingPrice());
+            a.setMinIncrement(1.0);
+            a.setBidCount(0);
+            a.setAutoExtend(false);
+            a.setStartTime(now.minusMinutes(1));
+            a.setEndTime(now.plusDays(1));
+            a.setSeller(seller);
+            a.setStatus(a.statusAt(now));
+            auctionRows.add(a);
+        }
+        for (Auction a : auctionRepository.saveAll(auctionRows)) {
+            scheduler.track(a);
+            index.refresh(a);
+            auctionIds.add(a.getId());
+            auctionStartPrices.add((long) a.getStartingPrice());
+        }
+        return this;
+    }
+
+    void close() {
+        context.close();
+    }
+
+    private static User user(String username, String password, String role) {
+        User u = new User();
+        u.setUsername(username);
+        u.setPassword(password);
+        u.setRole(role);
+        u.setEnabled(true);
+        return u;
+    }
+}
@@ -0,0 +1,116 @@
+package com.eauction.bench;
+
+import com.eauction.service.BidService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * {@link BidService#placeBid} end to end below the controller: bid engine
+ * lane, bid insert, auction update, live index, broadcast and notifications.
+ * {@code hotAuction} puts every thread on one auction (one lane, maximum
+ * contention); {@code spreadAuctions} picks auctions uniformly. Amounts come
+ * from a shared per-auction ladder, so a bid is only rejected when another
+ * thread overtook it; the accepted/rejected split is reported as aux counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class BidBenchmark {
+
+    @Param("1000")
+    int auctions;
+
+    @Param("200")
+    int bidders;
+
+    @Param("false")
+    boolean virtualThreads;
+
+    BenchmarkApp app;
+    BidService bidService;
+    long[] auctionIds;
+    long[] startPrices;
+    AtomicLongArray ladder;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        app = BenchmarkApp.start("bids", virtualThreads).seed(auctions, bidders);
+        bidService = app.bean(BidService.class);
+        auctionIds = app.auctionIds.stream().mapToLong(Long::longValue).toArray();
+        startPrices = app.auctionStartPrices.stream().mapToLong(Long::longValue).toArray();
+        ladder = new AtomicLongArray(auctionIds.length);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        app.close();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long accepted;
+        public long rejected;
+
+        SplittableRandom random;
+        long bidderId;
+        String bidderName;
+
+        @Setup(Level.Trial)
+        public void init(BidBenchmark bench, ThreadParams thread) {
+            random = new SplittableRandom(BenchmarkApp.SEED + thread.getThreadIndex());
+            int i = thread.getThreadIndex() % bench.app.bidderIds.size();
+            bidderId = bench.app.bidderIds.get(i);
+            bidderName = bench.app.bidderNames.get(i);
+        }
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            accepted = 0;
+            rejected = 0;
+        }
+    }
+
+    @Benchmark
+    public String hotAuction(Outcomes o) {
+        return bid(0, o);
+    }
+
+    @Benchmark
+    public String spreadAuctions(Outcomes o) {
+        return bid(o.random.nextInt(auctionIds.length), o);
+    }
+
+    private String bid(int slot, Outcomes o) {
+        double amount = startPrices[slot] + ladder.incrementAndGet(slot);
+        String result = bidService.placeBid(auctionIds[slot], amount, o.bidderId, o.bidderName);
+        if ("Bid Success".equals(result)) {
+            o.accepted++;
+        } else {
+            o.rejected++;
+        }
+        return result;
+    }
+}
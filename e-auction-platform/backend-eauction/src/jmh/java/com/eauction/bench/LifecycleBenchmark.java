@@ -0,0 +1,78 @@
+package com.eauction.bench;
+
+import com.eauction.model.Auction;
+import com.eauction.service.TimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Status derivation ({@link Auction#statusAt}) over a mixed set of auctions,
+ * and the lifecycle timing wheel in steady state: every operation schedules
+ * one deadline up to {@code horizonMs} ahead and advances the clock by 1 ms.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LifecycleBenchmark {
+
+    @Param("600000")
+    long horizonMs;
+
+    Auction[] auctions;
+    LocalDateTime now;
+    int next;
+
+    TimingWheel<Long> wheel;
+    long[] offsets;
+    long clock;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(BenchmarkApp.SEED);
+        now = LocalDateTime.now();
+        auctions = new Auction[4096];
+        for (int i = 0; i < auctions.length; i++) {
+            Auction a = new Auction();
+            a.setEnabled(random.nextInt(10) != 0);
+            a.setStartTime(now.plusMinutes(random.nextInt(120) - 60));
+            a.setEndTime(a.getStartTime().plusMinutes(1 + random.nextInt(120)));
+            auctions[i] = a;
+        }
+        clock = 0;
+        wheel = new TimingWheel<>(1, 512, clock);
+        offsets = new long[4096];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = 1 + (long) (random.nextDouble() * horizonMs);
+        }
+    }
+
+    @Benchmark
+    public String deriveStatus() {
+        return auctions[next++ & (auctions.length - 1)].statusAt(now);
+    }
+
+    @Benchmark
+    public void scheduleAndAdvance(Blackhole bh) {
+        long id = next++;
+        wheel.schedule(clock + offsets[(int) (id & (offsets.length - 1))], id);
+        wheel.advance(++clock, bh::consume);
+    }
+}
@@ -0,0 +1,68 @@
+package com.eauction.bench;
+
+import com.eauction.service.NotificationOutbox;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Time to notify {@code recipients} users of one event: enqueue on the
+ * outbox, then wait until the worker has persisted and pushed all of them
+ * (tracked through the outbox's own batch-size summary).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NotificationFanOutBenchmark {
+
+    @Param({ "100", "1000" })
+    int recipients;
+
+    BenchmarkApp app;
+    NotificationOutbox outbox;
+    DistributionSummary flushed;
+    long[] userIds;
+
+    @Setup(Level.Trial)
+    public void boot() {
+        app = BenchmarkApp.start("fanout", false).seed(1, recipients);
+        outbox = app.bean(NotificationOutbox.class);
+        flushed = app.bean(MeterRegistry.class).get("notifications.outbox.batch.size").summary();
+        userIds = app.bidderIds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        app.close();
+    }
+
+    @Benchmark
+    public double fanOut() {
+        double target = flushed.totalAmount() + userIds.length;
+        for (long id : userIds) {
+            outbox.enqueue(id, "Auction ending soon: Bench lot 0", "info");
+        }
+        while (flushed.totalAmount() < target) {
+            LockSupport.parkNanos(50_000);
+        }
+        return flushed.totalAmount();
+    }
+}
@@ -0,0 +1,72 @@
+package com.eauction.bench;
+
+import com.eauction.model.User;
+import com.eauction.security.AuthenticatedUser;
+import com.eauction.security.TokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token authentication. {@code cached} is the steady state where
+ * a token's signature was already checked; {@code verify} disables the cache
+ * so every call parses the JWT and checks its HMAC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    @Param("1024")
+    int users;
+
+    TokenService cachedService;
+    TokenService uncachedService;
+    String[] tokens;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        StandardEnvironment env = new StandardEnvironment();
+        cachedService = new TokenService(env, new SimpleMeterRegistry(), 10_000);
+        uncachedService = new TokenService(env, new SimpleMeterRegistry(), 0);
+        tokens = new String[users];
+        for (int i = 0; i < users; i++) {
+            User u = new User();
+            u.setId((long) i + 1);
+            u.setUsername("bench-user-" + i);
+            u.setRole(i % 10 == 0 ? "SELLER" : "BIDDER");
+            tokens[i] = cachedService.generateToken(u);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public AuthenticatedUser cached(Cursor c) {
+        return cachedService.authenticate(tokens[c.next++ % tokens.length]);
+    }
+
+    @Benchmark
+    public AuthenticatedUser verify(Cursor c) {
+        return uncachedService.authenticate(tokens[c.next++ % tokens.length]);
+    }
+}
@@ -0,0 +1,362 @@
+package com.eauction.loadsim;
+
+import com.eauction.EauctionApplication;
+import com.eauction.model.Auction;
+import com.eauction.model.User;
+import com.eauction.repository.AuctionRepository;
+import com.eauction.repository.UserRepository;
+import com.eauction.security.TokenService;
+import com.eauction.service.AuctionLifecycleScheduler;
+import com.eauction.service.LiveAuctionIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end bid storm against a locally booted instance on in-memory H2:
+ * real HTTP bids through {@code TokenAuthFilter} and {@code BidController},
+ * and real STOMP/SockJS viewers on {@code /topic/auction/{id}}.
+ * <p>
+ * Bids are open-loop: each one has an intended send time derived from
+ * {@code --rate}, and its latency is measured from that time, so a stalled
+ * server shows up as latency instead of silently lowering the offered load.
+ * The first {@code --warmup} seconds are discarded.
+ */
+public final class BidStorm {
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final StormOptions options;
+    private final Map<String, Long> sentAt = new ConcurrentHashMap<>();
+    private final Histogram acceptMicros = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong outbid = new AtomicLong();
+    private final AtomicLong ended = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private List<Auction> auctions;
+    private long[] auctionIds;
+    private long[] startPrices;
+    private AtomicLongArray ladder;
+    private String[] tokens;
+    private double[] zipfCdf;
+
+    private BidStorm(StormOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new BidStorm(StormOptions.parse(args)).run());
+    }
+
+    /** Returns the process exit status: non-zero when a {@code buy-now} race found a violation. */
+    private int run() throws Exception {
+        StormOptions o = options;
+        context = SpringApplication.run(EauctionApplication.class,
+                "--spring.datasource.url=jdbc:h2:mem:loadsim;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.threads.virtual.enabled=" + o.virtualThreads(),
+                "--auction.broadcast.conflate=" + o.conflate(),
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN");
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        if (o.scenario() == StormOptions.Scenario.BUY_NOW) {
+            Map<String, Object> report = new BuyNowRace(context, base, o).run();
+            context.close();
+            print(report);
+            write(report);
+            return (int) report.get("violationCount") == 0 ? 0 : 1;
+        }
+        seed();
+
+        SplittableRandom random = new SplittableRandom(o.seed());
+        zipfCdf = zipf(auctionIds.length, o.zipfExponent());
+        long[] watched = new long[o.subscribers()];
+        for (int i = 0; i < watched.length; i++) {
+            watched[i] = auctionIds[pickAuction(random)];
+        }
+        Subscribers subscribers = new Subscribers(sentAt);
+        subscribers.connect(base.replace("http", "ws") + "/ws", watched);
+        log("%d viewers subscribed, %d bidders, %d auctions, scenario %s at %d bids/s",
+                subscribers.size(), tokens.length, auctionIds.length, o.scenario(), o.rate());
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10)).build();
+        long start = System.nanoTime();
+        if (o.scenario() == StormOptions.Scenario.SNIPE) {
+            // Close one second before the last bids, so the final snipes arrive after the bell.
+            closeAuctionsAt(LocalDateTime.now().plusSeconds(o.warmupSeconds() + o.durationSeconds() - 1L));
+        }
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(o.warmupSeconds());
+        long total = TimeUnit.SECONDS.toNanos(o.warmupSeconds() + o.durationSeconds());
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / o.rate();
+        boolean reset = false;
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long offset = 0; offset < total; offset += intervalNanos) {
+                long intended = start + sendOffset(offset, total);
+                if (!reset && intended >= measureFrom) {
+                    // Bids still in flight from the warmup may land in the reset window; that is noise, not bias.
+                    waitUntil(measureFrom);
+                    resetStats(subscribers);
+                    reset = true;
+                }
+                int slot = pickAuction(random);
+                String token = tokens[random.nextInt(tokens.length)];
+                double amount = startPrices[slot] + ladder.incrementAndGet(slot);
+                waitUntil(intended - TimeUnit.MILLISECONDS.toNanos(1));
+                senders.execute(() -> bid(http, base, slot, amount, token, intended));
+            }
+        }
+        long measuredNanos = System.nanoTime() - measureFrom;
+        // Let the last broadcasts reach the viewers before reading their histogram.
+        Thread.sleep(2000);
+
+        Map<String, Object> report = report(subscribers, measuredNanos);
+        subscribers.close();
+        context.close();
+        print(report);
+        write(report);
+        return 0;
+    }
+
+    private void write(Map<String, Object> report) throws IOException {
+        File out = new File(options.out());
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, report);
+        log("Result written to %s", out.getAbsolutePath());
+    }
+
+    /** For SNIPE every bid lands in the last {@code --window} seconds; other scenarios spread evenly. */
+    private long sendOffset(long offset, long total) {
+        if (options.scenario() != StormOptions.Scenario.SNIPE) {
+            return offset;
+        }
+        long warmup = TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        if (offset < warmup) {
+            return offset;
+        }
+        long window = TimeUnit.SECONDS.toNanos(Math.min(options.windowSeconds(), options.durationSeconds()));
+        long measured = total - warmup;
+        return total - window + (long) ((double) (offset - warmup) / measured * window);
+    }
+
+    private void bid(HttpClient http, String base, int slot, double amount, String token, long intended) {
+        waitUntil(intended);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/bid/" + auctionIds[slot]))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"amount\":" + (long) amount + "}"))
+                .build();
+        sentAt.put(Subscribers.key(auctionIds[slot], amount), System.nanoTime());
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+            if (response.statusCode() == 200) {
+                accepted.incrementAndGet();
+                acceptMicros.recordValue(Math.min(MAX_MICROS, Math.max(0, micros)));
+            } else if (response.body().contains("Auction Ended")) {
+                ended.incrementAndGet();
+            } else if (response.body().contains("Higher bid exists")) {
+                outbid.incrementAndGet();
+            } else {
+                errors.incrementAndGet();
+            }
+        } catch (Exception e) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private void seed() {
+        StormOptions o = options;
+        UserRepository users = context.getBean(UserRepository.class);
+        AuctionRepository auctionRepository = context.getBean(AuctionRepository.class);
+        AuctionLifecycleScheduler scheduler = context.getBean(AuctionLifecycleScheduler.class);
+        LiveAuctionIndex index = context.getBean(LiveAuctionIndex.class);
+        TokenService tokenService = context.getBean(TokenService.class);
+        SplittableRandom random = new SplittableRandom(o.seed());
+
+        // Tokens are minted directly; logging thousands of users in would only benchmark BCrypt.
+        User seller = users.save(user("storm-seller", "SELLER"));
+        List<User> bidders = new ArrayList<>();
+        for (int i = 0; i < o.bidders(); i++) {
+            bidders.add(user("storm-bidder-" + i, "BIDDER"));
+        }
+        tokens = users.saveAll(bidders).stream().map(tokenService::generateToken).toArray(String[]::new);
+
+        LocalDateTime now = LocalDateTime.now();
+        int count = o.scenario() == StormOptions.Scenario.HOT ? 1 : o.auctions();
+        List<Auction> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Auction a = new Auction();
+            a.setProductName("Storm lot " + i);
+            a.setCategory("storm-" + (i % 16));
+            a.setStartingPrice(10 + random.nextInt(990));
+            a.setCurrentBid(a.getStartingPrice());
+            a.setMinIncrement(1.0);
+            a.setBidCount(0);
+            a.setAutoExtend(false);
+            a.setStartTime(now.minusMinutes(1));
+            a.setEndTime(now.plusDays(1));
+            a.setSeller(seller);
+            a.setStatus(a.statusAt(now));
+            rows.add(a);
+        }
+        this.auctions = auctionRepository.saveAll(rows);
+        auctionIds = new long[this.auctions.size()];
+        startPrices = new long[this.auctions.size()];
+        for (int i = 0; i < this.auctions.size(); i++) {
+            Auction a = this.auctions.get(i);
+            scheduler.track(a);
+            index.refresh(a);
+            auctionIds[i] = a.getId();
+            startPrices[i] = (long) a.getStartingPrice();
+        }
+        ladder = new AtomicLongArray(auctionIds.length);
+    }
+
+    private void closeAuctionsAt(LocalDateTime close) {
+        AuctionLifecycleScheduler scheduler = context.getBean(AuctionLifecycleScheduler.class);
+        LiveAuctionIndex index = context.getBean(LiveAuctionIndex.class);
+        for (Auction a : auctions) {
+            a.setEndTime(close);
+        }
+        // No bid has been placed yet, so the bid engine holds no state that could go stale.
+        for (Auction a : context.getBean(AuctionRepository.class).saveAll(auctions)) {
+            scheduler.track(a);
+            index.refresh(a);
+        }
+    }
+
+    private int pickAuction(SplittableRandom random) {
+        if (auctionIds.length == 1) {
+            return 0;
+        }
+        int i = Arrays.binarySearch(zipfCdf, random.nextDouble());
+        return Math.min(auctionIds.length - 1, i >= 0 ? i : -i - 1);
+    }
+
+    private static double[] zipf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1 / Math.pow(k + 1, exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+    private void resetStats(Subscribers subscribers) {
+        acceptMicros.reset();
+        accepted.set(0);
+        outbid.set(0);
+        ended.set(0);
+        errors.set(0);
+        subscribers.reset();
+    }
+
+    private Map<String, Object> report(Subscribers subscribers, long measuredNanos) {
+        double seconds = measuredNanos / 1e9;
+        long sent = accepted.get() + outbid.get() + ended.get() + errors.get();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("measuredSeconds", seconds);
+        report.put("bidsSent", sent);
+        report.put("bidsPerSecond", sent / seconds);
+        report.put("acceptedPerSecond", accepted.get() / seconds);
+        report.put("accepted", accepted.get());
+        report.put("rejectedOutbid", outbid.get());
+        report.put("rejectedEnded", ended.get());
+        report.put("errors", errors.get());
+        report.put("rejectRate", sent == 0 ? 0 : (double) (outbid.get() + ended.get()) / sent);
+        report.put("acceptLatencyMs", percentiles(acceptMicros));
+        report.put("broadcastFrames", subscribers.frames());
+        report.put("broadcastFramesPerSecond", subscribers.frames() / seconds);
+        report.put("broadcastLatencyMs", percentiles(subscribers.broadcastMicros()));
+        return report;
+    }
+
+    private static Map<String, Object> percentiles(Histogram h) {
+        Map<String, Object> p = new LinkedHashMap<>();
+        p.put("count", h.getTotalCount());
+        p.put("p50", h.getValueAtPercentile(50) / 1000.0);
+        p.put("p99", h.getValueAtPercentile(99) / 1000.0);
+        p.put("p999", h.getValueAtPercentile(99.9) / 1000.0);
+        p.put("max", h.getMaxValue() / 1000.0);
+        return p;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report) {
+        StringBuilder sb = new StringBuilder("\n");
+        report.forEach((k, v) -> {
+            if (v instanceof Map<?, ?> m) {
+                sb.append(String.format("  %-26s", k));
+                ((Map<String, Object>) m).forEach((pk, pv) -> sb.append(pk).append('=').append(pv).append("  "));
+                sb.append('\n');
+            } else if (v instanceof Double d) {
+                sb.append(String.format("  %-26s%.3f%n", k, d));
+            } else {
+                sb.append(String.format("  %-26s%s%n", k, v));
+            }
+        });
+        System.out.println(sb);
+    }
+
+    static User user(String username, String role) {
+        User u = new User();
+        u.setUsername(username);
+        // Not a BCrypt hash, so these accounts cannot log in; the simulator mints their tokens.
+        u.setPassword("-");
+        u.setRole(role);
+        u.setEnabled(true);
+        return u;
+    }
+
+    private static void waitUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private static void log(String format, Object... args) {
+        System.out.println("[loadsim] " + String.format(format, args));
+    }
+}
@@ -0,0 +1,251 @@
+package com.eauction.loadsim;
+
+import com.eauction.dto.BidView;
+import com.eauction.model.Auction;
+import com.eauction.model.User;
+import com.eauction.repository.AuctionRepository;
+import com.eauction.repository.BidRepository;
+import com.eauction.repository.UserRepository;
+import com.eauction.security.TokenService;
+import com.eauction.service.AuctionLifecycleScheduler;
+import com.eauction.service.LiveAuctionIndex;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention check for Buy Now. Each of {@code --auctions} rounds opens one
+ * auction and releases {@code --bidders} racers at once through a start gate:
+ * every fourth racer, always including the first, clicks Buy Now and the rest
+ * bid below the Buy Now price. A round passes when exactly one buyer wins,
+ * exactly one purchase row was written (it is inserted only when
+ * {@code applyBuyNow} changed the auction row, in the same transaction), the
+ * auction row shows that buyer at the Buy Now price, every accepted bid was
+ * stored before the purchase, and a bid sent after the race is refused.
+ */
+final class BuyNowRace {
+    private static final double STARTING_PRICE = 100;
+    private static final double BUY_NOW_PRICE = 1000;
+    private static final int MAX_REPORTED = 20;
+
+    private final ConfigurableApplicationContext context;
+    private final String base;
+    private final StormOptions options;
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10)).build();
+
+    private final AtomicLong bought = new AtomicLong();
+    private final AtomicLong buyRefused = new AtomicLong();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong outbid = new AtomicLong();
+    private final AtomicLong ended = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final List<String> violations = new ArrayList<>();
+    private int violationCount;
+
+    private String[] tokens;
+    private long[] userIds;
+    private User seller;
+
+    private record Outcome(int racer, boolean buyNow, double amount, int status, String body) {
+    }
+
+    BuyNowRace(ConfigurableApplicationContext context, String base, StormOptions options) {
+        this.context = context;
+        this.base = base;
+        this.options = options;
+    }
+
+    Map<String, Object> run() {
+        seedUsers();
+        SplittableRandom random = new SplittableRandom(options.seed());
+        long start = System.nanoTime();
+        for (int round = 0; round < options.auctions(); round++) {
+            race(round, random);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("seconds", seconds);
+        report.put("rounds", options.auctions());
+        report.put("racersPerRound", options.bidders());
+        report.put("bought", bought.get());
+        report.put("buyNowRefused", buyRefused.get());
+        report.put("bidsAccepted", accepted.get());
+        report.put("bidsRejectedOutbid", outbid.get());
+        report.put("bidsRejectedEnded", ended.get());
+        report.put("errors", errors.get());
+        report.put("violationCount", violationCount);
+        report.put("violations", violations);
+        return report;
+    }
+
+    private void race(int round, SplittableRandom random) {
+        long auctionId = openAuction(round);
+        double[] amounts = new double[options.bidders()];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = STARTING_PRICE + 1 + random.nextInt((int) (BUY_NOW_PRICE - STARTING_PRICE - 1));
+        }
+        Queue<Outcome> outcomes = new ConcurrentLinkedQueue<>();
+        CountDownLatch gate = new CountDownLatch(1);
+        try (ExecutorService racers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < amounts.length; i++) {
+                int racer = i;
+                racers.execute(() -> {
+                    try {
+                        gate.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    outcomes.add(send(auctionId, racer, racer % 4 == 0, amounts[racer]));
+                });
+            }
+            gate.countDown();
+        }
+
+        List<Long> winners = new ArrayList<>();
+        int acceptedBids = 0;
+        for (Outcome o : outcomes) {
+            if (o.buyNow()) {
+                if (o.status() == 200) {
+                    bought.incrementAndGet();
+                    winners.add(userIds[o.racer()]);
+                } else if (o.status() == 409) {
+                    buyRefused.incrementAndGet();
+                } else {
+                    errors.incrementAndGet();
+                }
+            } else if (o.status() == 200) {
+                accepted.incrementAndGet();
+                acceptedBids++;
+            } else if (o.body().contains("Auction Ended")) {
+                ended.incrementAndGet();
+            } else if (o.body().contains("Higher bid exists")) {
+                outbid.incrementAndGet();
+            } else {
+                errors.incrementAndGet();
+            }
+        }
+        if (winners.size() != 1) {
+            violation(round, "expected one Buy Now winner but got " + winners.size());
+            return;
+        }
+        long winner = winners.get(0);
+
+        Outcome late = send(auctionId, 1 % tokens.length, false, BUY_NOW_PRICE - 1);
+        if (late.status() == 200 || !late.body().contains("Auction Ended")) {
+            violation(round, "a bid after the close got " + late.status() + " " + late.body());
+        }
+
+        Auction row = context.getBean(AuctionRepository.class).findById(auctionId).orElseThrow();
+        if (row.getSettledAt() == null || !"ENDED".equals(row.getStatus())) {
+            violation(round, "auction row not closed: status " + row.getStatus() + ", settledAt " + row.getSettledAt());
+        }
+        if (row.getCurrentBid() == null || row.getCurrentBid() != BUY_NOW_PRICE || row.getHighestBidder() == null
+                || row.getHighestBidder().getId() != winner) {
+            violation(round, "auction row shows " + row.getCurrentBid() + " by "
+                    + (row.getHighestBidder() == null ? null : row.getHighestBidder().getId()) + ", not the buyer "
+                    + winner);
+        }
+
+        List<BidView> bids = context.getBean(BidRepository.class).findFirstPage(auctionId,
+                PageRequest.of(0, options.bidders() + 2));
+        List<BidView> purchases = bids.stream().filter(b -> b.amount() >= BUY_NOW_PRICE).toList();
+        if (purchases.size() != 1) {
+            violation(round, "expected one purchase row, i.e. one applyBuyNow row change, but found "
+                    + purchases.size());
+            return;
+        }
+        BidView purchase = purchases.get(0);
+        if (purchase.bidder() == null || purchase.bidder().id() != winner) {
+            violation(round, "purchase row belongs to " + purchase.bidder() + ", not the buyer " + winner);
+        }
+        for (BidView b : bids) {
+            if (b != purchase && b.bidTime().isAfter(purchase.bidTime())) {
+                violation(round, "bid " + b.id() + " of $" + b.amount() + " was accepted after the purchase");
+            }
+        }
+        if (bids.size() - 1 != acceptedBids) {
+            violation(round, acceptedBids + " bids were reported accepted but " + (bids.size() - 1)
+                    + " are stored besides the purchase");
+        }
+    }
+
+    private Outcome send(long auctionId, int racer, boolean buyNow, double amount) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(base + "/api/bid/" + auctionId
+                        + (buyNow ? "/buy-now" : "")))
+                .header("Authorization", "Bearer " + tokens[racer])
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30));
+        request = buyNow ? request.POST(HttpRequest.BodyPublishers.noBody())
+                : request.POST(HttpRequest.BodyPublishers.ofString("{\"amount\":" + (long) amount + "}"));
+        try {
+            HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            return new Outcome(racer, buyNow, amount, response.statusCode(), response.body());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Outcome(racer, buyNow, amount, -1, String.valueOf(e));
+        } catch (Exception e) {
+            return new Outcome(racer, buyNow, amount, -1, String.valueOf(e));
+        }
+    }
+
+    private void seedUsers() {
+        UserRepository users = context.getBean(UserRepository.class);
+        TokenService tokenService = context.getBean(TokenService.class);
+        seller = users.save(BidStorm.user("race-seller", "SELLER"));
+        List<User> racers = new ArrayList<>();
+        for (int i = 0; i < options.bidders(); i++) {
+            racers.add(BidStorm.user("race-bidder-" + i, "BIDDER"));
+        }
+        List<User> saved = users.saveAll(racers);
+        tokens = saved.stream().map(tokenService::generateToken).toArray(String[]::new);
+        userIds = saved.stream().mapToLong(User::getId).toArray();
+    }
+
+    private long openAuction(int round) {
+        LocalDateTime now = LocalDateTime.now();
+        Auction a = new Auction();
+        a.setProductName("Race lot " + round);
+        a.setStartingPrice(STARTING_PRICE);
+        a.setCurrentBid(STARTING_PRICE);
+        a.setMinIncrement(1.0);
+        a.setBuyNowPrice(BUY_NOW_PRICE);
+        a.setBidCount(0);
+        a.setAutoExtend(false);
+        a.setStartTime(now.minusMinutes(1));
+        a.setEndTime(now.plusDays(1));
+        a.setSeller(seller);
+        a.setStatus(a.statusAt(now));
+        Auction saved = context.getBean(AuctionRepository.class).save(a);
+        context.getBean(AuctionLifecycleScheduler.class).track(saved);
+        context.getBean(LiveAuctionIndex.class).refresh(saved);
+        return saved.getId();
+    }
+
+    private void violation(int round, String message) {
+        violationCount++;
+        if (violations.size() < MAX_REPORTED) {
+            violations.add("round " + round + ": " + message);
+        }
+    }
+}
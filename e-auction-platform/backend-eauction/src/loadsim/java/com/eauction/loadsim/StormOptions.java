@@ -0,0 +1,58 @@
+package com.eauction.loadsim;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line of the simulator, given as {@code name=value} pairs (a leading
+ * {@code --} is allowed). Every option has a default, so a bare run is a small
+ * hot-auction storm.
+ */
+record StormOptions(Scenario scenario, int auctions, int bidders, int subscribers, int rate, int warmupSeconds,
+        int durationSeconds, int windowSeconds, double zipfExponent, boolean conflate, boolean virtualThreads,
+        long seed, String out) {
+
+    enum Scenario {
+        /** Every bid and every subscriber on a single auction. */
+        HOT,
+        /** Bids and subscribers spread over all auctions with a Zipf skew. */
+        ZIPF,
+        /** Zipf-spread auctions that all close together; the bids arrive in the final window. */
+        SNIPE,
+        /** Rounds of {@code bidders} racing Buy Now against bids, one auction each; see {@link BuyNowRace}. */
+        BUY_NOW
+    }
+
+    static StormOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int eq = option.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Expected name=value but got " + arg);
+            }
+            values.put(option.substring(0, eq), option.substring(eq + 1));
+        }
+        StormOptions options = new StormOptions(
+                Scenario.valueOf(values.getOrDefault("scenario", "hot").toUpperCase(Locale.ROOT).replace('-', '_')),
+                Integer.parseInt(values.getOrDefault("auctions", "200")),
+                Integer.parseInt(values.getOrDefault("bidders", "200")),
+                Integer.parseInt(values.getOrDefault("subscribers", "1000")),
+                Integer.parseInt(values.getOrDefault("rate", "200")),
+                Integer.parseInt(values.getOrDefault("warmup", "5")),
+                Integer.parseInt(values.getOrDefault("duration", "30")),
+                Integer.parseInt(values.getOrDefault("window", "10")),
+                Double.parseDouble(values.getOrDefault("zipf", "1.1")),
+                Boolean.parseBoolean(values.getOrDefault("conflate", "false")),
+                Boolean.parseBoolean(values.getOrDefault("virtual-threads", "false")),
+                Long.parseLong(values.getOrDefault("seed", "42")),
+                values.getOrDefault("out", "target/loadsim-result.json"));
+        values.keySet().removeAll(java.util.Set.of("scenario", "auctions", "bidders", "subscribers", "rate",
+                "warmup", "duration", "window", "zipf", "conflate", "virtual-threads", "seed", "out"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        return options;
+    }
+}
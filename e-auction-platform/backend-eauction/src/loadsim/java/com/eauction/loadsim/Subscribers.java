@@ -0,0 +1,120 @@
+package com.eauction.loadsim;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * STOMP-over-SockJS sessions, one per simulated viewer, each subscribed to one
+ * {@code /topic/auction/{id}}. When an update for a bid arrives, the time since
+ * that bid was sent is recorded as its broadcast latency for this viewer.
+ */
+final class Subscribers {
+    private final WebSocketStompClient client;
+    private final List<StompSession> sessions = new ArrayList<>();
+    private final Map<String, Long> sentAt;
+    private final Histogram broadcastMicros = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(5), 3);
+    private final AtomicLong frames = new AtomicLong();
+
+    Subscribers(Map<String, Long> sentAt) {
+        this.sentAt = sentAt;
+        ThreadPoolTaskScheduler heartbeats = new ThreadPoolTaskScheduler();
+        heartbeats.setPoolSize(1);
+        heartbeats.setDaemon(true);
+        heartbeats.initialize();
+        this.client = new WebSocketStompClient(
+                new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        this.client.setMessageConverter(new MappingJackson2MessageConverter());
+        this.client.setTaskScheduler(heartbeats);
+    }
+
+    static String key(long auctionId, double amount) {
+        return auctionId + ":" + Math.round(amount);
+    }
+
+    /** Opens one session per entry of {@code auctionIds}, a few hundred handshakes at a time. */
+    void connect(String url, long[] auctionIds) throws Exception {
+        int batch = 200;
+        for (int from = 0; from < auctionIds.length; from += batch) {
+            List<CompletableFuture<StompSession>> pending = new ArrayList<>();
+            for (int i = from; i < Math.min(auctionIds.length, from + batch); i++) {
+                long auctionId = auctionIds[i];
+                pending.add(client.connectAsync(url, new StompSessionHandlerAdapter() {
+                    @Override
+                    public void afterConnected(StompSession session, StompHeaders headers) {
+                        session.subscribe("/topic/auction/" + auctionId, new Frames());
+                    }
+                }));
+            }
+            for (CompletableFuture<StompSession> f : pending) {
+                sessions.add(f.get(30, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    void reset() {
+        broadcastMicros.reset();
+        frames.set(0);
+    }
+
+    Histogram broadcastMicros() {
+        return broadcastMicros;
+    }
+
+    long frames() {
+        return frames.get();
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    void close() {
+        for (StompSession s : sessions) {
+            try {
+                s.disconnect();
+            } catch (RuntimeException ignored) {
+                // the server may already be shutting down
+            }
+        }
+        client.stop();
+    }
+
+    private final class Frames implements StompFrameHandler {
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return Map.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long now = System.nanoTime();
+            frames.incrementAndGet();
+            Map<?, ?> update = (Map<?, ?>) payload;
+            if (!(update.get("auctionId") instanceof Number id) || !(update.get("currentBid") instanceof Number bid)) {
+                return;
+            }
+            Long sent = sentAt.get(key(id.longValue(), bid.doubleValue()));
+            if (sent != null) {
+                broadcastMicros.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(now - sent)));
+            }
+        }
+    }
+}
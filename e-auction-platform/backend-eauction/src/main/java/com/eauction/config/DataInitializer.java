@@ -23,7 +23,8 @@ public class DataInitializer {
     @Bean
     CommandLineRunner init(UserRepository users, AuctionRepository auctions, PasswordEncoder encoder) {
         return args -> {
-            if (users.findAll().isEmpty()) {
+            users.backfillUsernameKeys();
+            if (users.count() == 0) {
                 User admin = new User();
                 admin.setUsername("admin");
                 admin.setPassword(encoder.encode("admin123"));
@@ -1,27 +1,91 @@
 package com.eauction.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.boot.jdbc.DataSourceBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
 
 import javax.sql.DataSource;
 import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Configuration
 public class DatabaseConfig {
 
+    // Connector/J settings recommended for a pooled, batch-heavy workload; anything set in the URL or in
+    // spring.datasource.hikari.data-source-properties.* wins.
+    private static final Map<String, String> MYSQL_DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        MYSQL_DEFAULTS.put("cachePrepStmts", "true");
+        MYSQL_DEFAULTS.put("prepStmtCacheSize", "250");
+        MYSQL_DEFAULTS.put("prepStmtCacheSqlLimit", "2048");
+        MYSQL_DEFAULTS.put("useServerPrepStmts", "true");
+        MYSQL_DEFAULTS.put("rewriteBatchedStatements", "true");
+        MYSQL_DEFAULTS.put("useLocalSessionState", "true");
+        MYSQL_DEFAULTS.put("cacheResultSetMetadata", "true");
+        MYSQL_DEFAULTS.put("cacheServerConfiguration", "true");
+        MYSQL_DEFAULTS.put("elideSetAutoCommits", "true");
+        MYSQL_DEFAULTS.put("maintainTimeStats", "false");
+    }
+
+    @Autowired
+    private Environment environment;
+
     @Value("${DATABASE_URL:}")
     private String databaseUrl;
 
     @Value("${spring.datasource.url:}")
     private String springDatasourceUrl;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${db.limiter.max-concurrent:0}")
+    private int limiterMaxConcurrent;
+
+    @Value("${db.limiter.acquire-timeout-ms:30000}")
+    private long limiterAcquireTimeoutMs;
+
     @Bean
     @Primary
-    public DataSource dataSource(DataSourceProperties properties) {
+    public DataSource dataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource pool = pool(properties);
+        if (!virtualThreads) {
+            return pool;
+        }
+        // Virtual threads remove the request-thread cap, so bound concurrent checkouts to the pool size.
+        // -1 means maximum-pool-size was left unset, i.e. Hikari's default of 10.
+        int poolSize = pool.getMaximumPoolSize();
+        int permits = limiterMaxConcurrent > 0 ? limiterMaxConcurrent : poolSize > 0 ? poolSize : 10;
+        return new ConcurrencyLimitedDataSource(pool, permits, limiterAcquireTimeoutMs, meterRegistry);
+    }
+
+    private HikariDataSource pool(DataSourceProperties properties) {
+        HikariDataSource pool = build(properties);
+        // Sizing, timeouts and leak detection come from spring.datasource.hikari.* for both URL styles.
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        String url = pool.getJdbcUrl();
+        if (url != null && url.startsWith("jdbc:mysql:")) {
+            MYSQL_DEFAULTS.forEach((key, value) -> {
+                if (!url.contains(key + "=") && !pool.getDataSourceProperties().containsKey(key)) {
+                    pool.addDataSourceProperty(key, value);
+                }
+            });
+        }
+        return pool;
+    }
+
+    private HikariDataSource build(DataSourceProperties properties) {
         // If DATABASE_URL is provided (Railway, Render format), use it
         if (databaseUrl != null && !databaseUrl.isEmpty()) {
             try {
@@ -36,6 +100,7 @@ public class DatabaseConfig {
                 }
 
                 return DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
                         .driverClassName("com.mysql.cj.jdbc.Driver")
                         .url(dbUrl)
                         .username(username)
@@ -49,6 +114,7 @@ public class DatabaseConfig {
 
         // Use default Spring Boot DataSource configuration
         return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
                 .driverClassName(properties.getDriverClassName())
                 .url(properties.getUrl())
                 .username(properties.getUsername())
@@ -0,0 +1,64 @@
+package com.eauction.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the request thread and
+ * records them per endpoint as {@code http.server.requests.jdbc.statements},
+ * so an N+1 regression shows up as a jump in that endpoint's distribution.
+ * Work handed to other threads (bid lanes, the notification outbox) is not
+ * attributed to the request.
+ */
+@Component
+public class StatementCounter extends OncePerRequestFilter {
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+
+    public StatementCounter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Registered with Hibernate through {@code hibernate.session_factory.statement_inspector}. */
+    public static class Inspector implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            int[] count = COUNT.get();
+            if (count != null) {
+                count[0]++;
+            }
+            return sql;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        int[] count = new int[1];
+        COUNT.set(count);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            COUNT.remove();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern != null) {
+                DistributionSummary.builder("http.server.requests.jdbc.statements")
+                        .tag("method", request.getMethod())
+                        .tag("uri", pattern.toString())
+                        .register(registry)
+                        .record(count[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.eauction.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Watches the JFR {@code jdk.VirtualThreadPinned} event, which fires when a
+ * virtual thread blocks while it cannot unmount (inside {@code synchronized} or
+ * a native frame) and so holds its carrier thread. Each event is counted, and
+ * the offending stack is logged at most once per {@code log-interval-ms}.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private final Duration threshold;
+    private final long logIntervalMs;
+    private final Counter pinned;
+    private final Timer pinnedTime;
+    private final AtomicLong lastLogged = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry registry,
+            @Value("${virtual-threads.pinning.threshold-ms:20}") long thresholdMs,
+            @Value("${virtual-threads.pinning.log-interval-ms:60000}") long logIntervalMs) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.logIntervalMs = logIntervalMs;
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned").register(registry);
+        this.pinnedTime = Timer.builder("jvm.threads.virtual.pinned.duration").register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        pinnedTime.record(event.getDuration());
+        long now = System.currentTimeMillis();
+        long last = lastLogged.get();
+        if (now - last < logIntervalMs || !lastLogged.compareAndSet(last, now)) {
+            suppressed.incrementAndGet();
+            return;
+        }
+        log.warn("Virtual thread pinned its carrier for {} ms ({} more since last report) at\n{}",
+                event.getDuration().toMillis(), suppressed.getAndSet(0), frames(event));
+    }
+
+    private static String frames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "\t<no stack trace>";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream().limit(12)
+                .map(f -> "\tat " + f.getMethod().getType().getName() + "." + f.getMethod().getName()
+                        + ":" + f.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.eauction.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.lang.NonNull;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * STOMP traffic meters. {@code websocket.messages} counts messages per channel
+ * and destination, with ids folded into {@code {id}} so every auction shares
+ * one series. {@code websocket.channel.queue} and {@code .active} report the
+ * backlog of the channel executors, and {@code websocket.sessions} the number
+ * of open sessions.
+ */
+@Component
+public class WebSocketMetrics implements SmartInitializingSingleton {
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+
+    private final MeterRegistry registry;
+    private final ApplicationContext context;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public WebSocketMetrics(MeterRegistry registry, ApplicationContext context) {
+        this.registry = registry;
+        this.context = context;
+    }
+
+    /** Counts messages passing through a channel under the given name. */
+    public ChannelInterceptor interceptor(String channel) {
+        return new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(@NonNull Message<?> message, @NonNull MessageChannel ch) {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE) {
+                    String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+                    count(channel, destination == null ? "none" : ID_SEGMENT.matcher(destination).replaceAll("/{id}"));
+                }
+                return message;
+            }
+        };
+    }
+
+    private void count(String channel, String destination) {
+        counters.computeIfAbsent(channel + ' ' + destination, k -> Counter.builder("websocket.messages")
+                .tag("channel", channel).tag("destination", destination).register(registry)).increment();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        executor("clientInboundChannelExecutor", "inbound");
+        executor("clientOutboundChannelExecutor", "outbound");
+        executor("brokerChannelExecutor", "broker");
+        if (context.getBean("subProtocolWebSocketHandler") instanceof SubProtocolWebSocketHandler handler) {
+            Gauge.builder("websocket.sessions", handler, h -> h.getStats().getTotalSessions()).register(registry);
+        }
+    }
+
+    private void executor(String bean, String channel) {
+        // In virtual-thread mode the channels run on unbounded executors that have no queue to report.
+        if (context.containsBean(bean) && context.getBean(bean) instanceof ThreadPoolTaskExecutor pool) {
+            Gauge.builder("websocket.channel.queue", pool, p -> p.getThreadPoolExecutor().getQueue().size())
+                    .tag("channel", channel).register(registry);
+            Gauge.builder("websocket.channel.active", pool, ThreadPoolTaskExecutor::getActiveCount)
+                    .tag("channel", channel).register(registry);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.eauction.controller;
+
+import com.eauction.service.NotificationRetention;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/notifications")
+public class AdminNotificationController {
+    @Autowired
+    private NotificationRetention notificationRetention;
+
+    // Runs a retention pass now instead of waiting for the schedule; same throttling and run budget.
+    @PostMapping("/retention")
+    public ResponseEntity<?> retention() {
+        NotificationRetention.Report report = notificationRetention.run();
+        if (report == null) {
+            return ResponseEntity.status(409).body(Map.of("message", "retention already running"));
+        }
+        return ResponseEntity.ok(Map.of(
+                "rowsReclaimed", report.rowsReclaimed(),
+                "rowsCollapsed", report.rowsCollapsed(),
+                "groupsCollapsed", report.groupsCollapsed(),
+                "rowsPurged", report.rowsPurged(),
+                "complete", report.complete(),
+                "elapsedMs", report.elapsedMs()));
+    }
+}
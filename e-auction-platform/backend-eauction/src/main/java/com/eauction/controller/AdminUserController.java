@@ -0,0 +1,37 @@
+package com.eauction.controller;
+
+import com.eauction.service.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/users")
+public class AdminUserController {
+    @Autowired
+    private UserImportService userImportService;
+
+    // Body is one user per line: NDJSON {"username","password","role"} or CSV username,password,role.
+    @PostMapping("/import")
+    public ResponseEntity<?> importUsers(HttpServletRequest request,
+            @RequestParam(defaultValue = "ndjson") String format) throws IOException {
+        if (!"csv".equalsIgnoreCase(format) && !"ndjson".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        UserImportService.ImportResult result = userImportService.importUsers(request.getInputStream(),
+                "csv".equalsIgnoreCase(format));
+        return ResponseEntity.ok(Map.of(
+                "imported", result.imported(),
+                "duplicates", result.duplicates(),
+                "invalid", result.invalid(),
+                "elapsedMs", result.elapsedMs(),
+                "usersPerSecond", Math.round(result.usersPerSecond())));
+    }
+}
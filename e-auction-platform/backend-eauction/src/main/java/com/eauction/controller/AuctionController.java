@@ -1,17 +1,30 @@
 package com.eauction.controller;
 
+import com.eauction.dto.AuctionSearchResult;
+import com.eauction.dto.AuctionView;
+import com.eauction.dto.BidView;
+import com.eauction.dto.PageCursor;
 import com.eauction.model.Auction;
-import com.eauction.model.User;
 import com.eauction.model.Watchlist;
 import com.eauction.repository.AuctionRepository;
+import com.eauction.repository.AuctionRepositoryCustom;
 import com.eauction.repository.BidRepository;
 import com.eauction.repository.UserRepository;
 import com.eauction.repository.WatchlistRepository;
+import com.eauction.security.AuthenticatedUser;
+import com.eauction.service.AuctionFeed;
+import com.eauction.service.AuctionLifecycleScheduler;
+import com.eauction.service.AuctionSearchIndex;
+import com.eauction.service.BidEngine;
+import com.eauction.service.LiveAuctionIndex;
+import com.eauction.service.WatcherIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -28,45 +41,105 @@ public class AuctionController {
     private BidRepository bidRepository;
     @Autowired
     private WatchlistRepository watchlistRepository;
+    @Autowired
+    private BidEngine bidEngine;
+    @Autowired
+    private AuctionLifecycleScheduler lifecycleScheduler;
+    @Autowired
+    private LiveAuctionIndex liveAuctionIndex;
+    @Autowired
+    private WatcherIndex watcherIndex;
+    @Autowired
+    private AuctionSearchIndex auctionSearchIndex;
 
     @GetMapping
-    public List<Auction> all() {
-        return auctionRepository.findAll();
+    public ResponseEntity<List<AuctionView>> all(@RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return auctionPage(AuctionRepositoryCustom.Scope.ALL, null, cursor, limit);
     }
 
     @GetMapping("/live")
-    public List<Auction> live() {
-        return auctionRepository.findLiveAuctions();
+    public List<AuctionView> live() {
+        List<AuctionView> snapshot = liveAuctionIndex.snapshot();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        return auctionRepository.findLiveAuctions().stream().map(a -> watcherIndex.annotate(AuctionView.from(a)))
+                .toList();
+    }
+
+    // ending-soon, lowest-price or most-bids over live auctions; the first page is the top N.
+    @GetMapping("/feed/{order}")
+    public ResponseEntity<?> feed(@PathVariable String order, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        AuctionFeed feed = AuctionFeed.of(order);
+        if (feed == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unknown feed: " + order));
+        }
+        LiveAuctionIndex.FeedPage page = liveAuctionIndex.feed(feed, cursor, PageCursor.pageSize(limit));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(Pages.NEXT_CURSOR, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    // Facet counts cover all hits of the query, not just this page; each facet ignores its own filter.
+    @GetMapping("/search")
+    public ResponseEntity<AuctionSearchResult> search(@RequestParam(required = false) String q,
+            @RequestParam(required = false) String category, @RequestParam(required = false) String condition,
+            @RequestParam(required = false) String status, @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int size = PageCursor.pageSize(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        AuctionSearchResult result = auctionSearchIndex.search(new AuctionSearchIndex.Query(q, category, condition,
+                status, minPrice, maxPrice, after == null ? null : after.id(), size));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        List<AuctionView> items = result.items();
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            response.header(Pages.NEXT_CURSOR, new PageCursor(null, items.get(size - 1).id()).encode());
+        }
+        return response.body(new AuctionSearchResult(result.total(), result.facets(),
+                items.stream().map(watcherIndex::annotate).toList()));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Auction> get(@PathVariable long id) {
+    public ResponseEntity<AuctionView> get(@PathVariable long id) {
         return auctionRepository.findById(id)
-                .map(ResponseEntity::ok)
+                .map(a -> ResponseEntity.ok(watcherIndex.annotate(AuctionView.from(a))))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/{id}/bids")
-    public List<com.eauction.model.Bid> bids(@PathVariable long id) {
-        return bidRepository.findByAuction_IdOrderByBidTimeDesc(id);
+    public ResponseEntity<List<BidView>> bids(@PathVariable long id, @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int size = PageCursor.pageSize(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<BidView> rows = after == null
+                ? bidRepository.findFirstPage(id, page)
+                : bidRepository.findPageAfter(id, after.time(), after.id(), page);
+        return Pages.of(rows, size, b -> new PageCursor(b.bidTime(), b.id()), b -> b);
     }
 
     @GetMapping("/my")
-    public List<Auction> myAuctions(Principal principal) {
-        User seller = userRepository.findByUsername(principal.getName());
-        return auctionRepository.findBySeller_Id(seller.getId());
+    public ResponseEntity<List<AuctionView>> myAuctions(@AuthenticationPrincipal AuthenticatedUser me,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return auctionPage(AuctionRepositoryCustom.Scope.SELLER, me.id(), cursor, limit);
     }
 
     @GetMapping("/my-bids")
-    public List<Auction> myBids(Principal principal) {
-        User bidder = userRepository.findByUsername(principal.getName());
-        return auctionRepository.findAuctionsByBidderId(bidder.getId());
+    public ResponseEntity<List<AuctionView>> myBids(@AuthenticationPrincipal AuthenticatedUser me,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        return auctionPage(AuctionRepositoryCustom.Scope.BIDDER, me.id(), cursor, limit);
     }
 
     @PostMapping
-    public ResponseEntity<Auction> create(@RequestBody Auction auction, Principal principal) {
-        User seller = userRepository.findByUsername(principal.getName());
-        auction.setSeller(seller);
+    public ResponseEntity<AuctionView> create(@RequestBody Auction auction,
+            @AuthenticationPrincipal AuthenticatedUser me) {
+        auction.setSeller(userRepository.getReferenceById(me.id()));
         if (auction.getStartingPrice() <= 0) {
             return ResponseEntity.badRequest().build();
         }
@@ -90,23 +163,16 @@ public class AuctionController {
             auction.setStartTime(LocalDateTime.now());
         }
         LocalDateTime now = LocalDateTime.now();
-        String status;
-        if (!auction.isEnabled()) {
-            status = "DRAFT";
-        } else if (auction.getEndTime() != null && now.isAfter(auction.getEndTime())) {
-            status = "ENDED";
-        } else if (auction.getStartTime() != null && now.isBefore(auction.getStartTime())) {
-            status = "SCHEDULED";
-        } else {
-            status = "LIVE";
-        }
-        auction.setStatus(status);
+        auction.setStatus(auction.statusAt(now));
         Auction saved = auctionRepository.save(auction);
-        return ResponseEntity.ok(saved);
+        lifecycleScheduler.track(saved);
+        liveAuctionIndex.refresh(saved);
+        auctionSearchIndex.refresh(saved);
+        return ResponseEntity.ok(AuctionView.from(saved));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable long id, @RequestBody Auction incoming, Principal principal) {
+    public ResponseEntity<?> update(@PathVariable long id, @RequestBody Auction incoming) {
         return auctionRepository.findById(id).map(existing -> {
             LocalDateTime now = LocalDateTime.now();
             if (existing.getStartTime() != null && now.isAfter(existing.getStartTime())) {
@@ -139,19 +205,13 @@ public class AuctionController {
             existing.setAutoExtend(incoming.getAutoExtend());
             existing.setImageUrl(incoming.getImageUrl());
             existing.setImageUrls(incoming.getImageUrls());
-            String status;
-            if (!existing.isEnabled()) {
-                status = "DRAFT";
-            } else if (existing.getEndTime() != null && now.isAfter(existing.getEndTime())) {
-                status = "ENDED";
-            } else if (existing.getStartTime() != null && now.isBefore(existing.getStartTime())) {
-                status = "SCHEDULED";
-            } else {
-                status = "LIVE";
-            }
-            existing.setStatus(status);
+            existing.setStatus(existing.statusAt(now));
             Auction saved = auctionRepository.save(existing);
-            return ResponseEntity.ok(saved);
+            bidEngine.evict(id);
+            lifecycleScheduler.track(saved);
+            liveAuctionIndex.refresh(saved);
+            auctionSearchIndex.refresh(saved);
+            return ResponseEntity.ok(watcherIndex.annotate(AuctionView.from(saved)));
         }).orElse(ResponseEntity.notFound().build());
     }
 
@@ -161,24 +221,42 @@ public class AuctionController {
             Boolean enabled = body.get("enabled");
             a.setEnabled(enabled != null ? enabled : a.isEnabled());
             auctionRepository.save(a);
+            bidEngine.evict(id);
+            lifecycleScheduler.track(a);
+            liveAuctionIndex.refresh(a);
+            auctionSearchIndex.refresh(a);
             return ResponseEntity.ok(Map.of("message", "updated"));
         }).orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping("/{id}/watch")
-    public ResponseEntity<?> toggleWatch(@PathVariable long id, Principal principal) {
-        User user = userRepository.findByUsername(principal.getName());
-        Watchlist wl = watchlistRepository.findByUser_IdAndAuction_Id(user.getId(), id);
-        if (wl == null) {
-            Auction a = auctionRepository.findById(id).orElseThrow();
+    public ResponseEntity<?> toggleWatch(@PathVariable long id, @AuthenticationPrincipal AuthenticatedUser me) {
+        Watchlist wl = watchlistRepository.findByUser_IdAndAuction_Id(me.id(), id);
+        boolean watched = wl == null;
+        if (watched) {
             Watchlist n = new Watchlist();
-            n.setUser(user);
-            n.setAuction(a);
-            watchlistRepository.save(n);
-            return ResponseEntity.ok(Map.of("watched", true));
+            n.setUser(userRepository.getReferenceById(me.id()));
+            // A missing auction fails the foreign key instead of costing a select on every toggle.
+            n.setAuction(auctionRepository.getReferenceById(id));
+            try {
+                watchlistRepository.saveAndFlush(n);
+            } catch (DataIntegrityViolationException e) {
+                return ResponseEntity.notFound().build();
+            }
+            watcherIndex.watched(id, me.id());
         } else {
             watchlistRepository.delete(wl);
-            return ResponseEntity.ok(Map.of("watched", false));
+            watcherIndex.unwatched(id, me.id());
         }
+        liveAuctionIndex.watchersChanged(id);
+        return ResponseEntity.ok(Map.of("watched", watched, "watchers", watcherIndex.count(id)));
+    }
+
+    private ResponseEntity<List<AuctionView>> auctionPage(AuctionRepositoryCustom.Scope scope, Long userId,
+            String cursor, Integer limit) {
+        int size = PageCursor.pageSize(limit);
+        List<Auction> rows = auctionRepository.findPageByEndTime(scope, userId, PageCursor.decode(cursor), size + 1);
+        return Pages.of(rows, size, a -> new PageCursor(a.getEndTime(), a.getId()),
+                a -> watcherIndex.annotate(AuctionView.from(a)));
     }
 }
@@ -4,6 +4,7 @@ import com.eauction.model.User;
 import com.eauction.repository.UserRepository;
 import com.eauction.security.TokenService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -11,7 +12,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -40,10 +40,7 @@ public class AuthController {
                     .body(Map.of("message", "Username and password required"));
         }
 
-        Optional<User> existing = userRepository.findAll().stream()
-                .filter(u -> u.getUsername().equalsIgnoreCase(username))
-                .findFirst();
-        if (existing.isPresent()) {
+        if (userRepository.existsByUsernameKey(User.keyOf(username))) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Username already exists"));
         }
 
@@ -52,7 +49,12 @@ public class AuthController {
         user.setPassword(passwordEncoder.encode(password));
         user.setRole(role.toUpperCase());
         user.setEnabled(true);
-        user = userRepository.save(user);
+        try {
+            user = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent signup for the same name.
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Username already exists"));
+        }
 
         return ResponseEntity.ok(Map.of("message", "User registered", "userId", user.getId()));
     }
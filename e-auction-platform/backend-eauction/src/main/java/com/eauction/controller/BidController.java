@@ -1,12 +1,13 @@
 package com.eauction.controller;
 
+import com.eauction.security.AuthenticatedUser;
 import com.eauction.service.BidService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
-import java.security.Principal;
 
 @RestController
 @RequestMapping("/api/bid")
@@ -18,12 +19,35 @@ public class BidController {
     @PostMapping("/{id}")
     public ResponseEntity<?> bid(@PathVariable long id,
             @RequestBody Map<String, Object> body,
-            Principal principal) {
+            @AuthenticationPrincipal AuthenticatedUser me) {
         double amount = Double.parseDouble(String.valueOf(body.get("amount")));
-        String result = bidService.placeBid(id, amount, principal.getName());
+        String result = bidService.placeBid(id, amount, me.id(), me.username());
         if (result.startsWith("Bid Failed")) {
             return ResponseEntity.badRequest().body(Map.of("message", result));
         }
         return ResponseEntity.ok(Map.of("message", result));
     }
+
+    // A hidden maximum; when someone outbids the user, the engine answers in one step with the lowest bid that
+    // beats them, capped at the maximum.
+    @PostMapping("/{id}/proxy")
+    public ResponseEntity<?> maximum(@PathVariable long id,
+            @RequestBody Map<String, Object> body,
+            @AuthenticationPrincipal AuthenticatedUser me) {
+        double maxAmount = Double.parseDouble(String.valueOf(body.get("maxAmount")));
+        String result = bidService.placeMaximumBid(id, maxAmount, me.id(), me.username());
+        if (result.startsWith("Bid Failed")) {
+            return ResponseEntity.badRequest().body(Map.of("message", result));
+        }
+        return ResponseEntity.ok(Map.of("message", result));
+    }
+
+    @PostMapping("/{id}/buy-now")
+    public ResponseEntity<?> buyNow(@PathVariable long id, @AuthenticationPrincipal AuthenticatedUser me) {
+        String result = bidService.buyNow(id, me.id(), me.username());
+        if (result.startsWith("Buy Now Failed")) {
+            return ResponseEntity.status(409).body(Map.of("message", result));
+        }
+        return ResponseEntity.ok(Map.of("message", result));
+    }
 }
@@ -0,0 +1,105 @@
+package com.eauction.controller;
+
+import com.eauction.security.AuthenticatedUser;
+import com.eauction.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+    private static final String SUPPORTED_FORMATS = Arrays.stream(ExportService.Format.values())
+            .map(f -> f.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining(", "));
+
+    @Autowired
+    private ExportService exportService;
+
+    @GetMapping("/bids")
+    public ResponseEntity<?> bids(@AuthenticationPrincipal AuthenticatedUser me, HttpServletResponse response,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long sellerId,
+            @RequestParam(required = false) Long auctionId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status) throws IOException {
+        ExportService.Format fmt = format(format);
+        if (fmt == null) {
+            return unsupported(format);
+        }
+        Long scoped = sellerId;
+        if (!"ADMIN".equals(me.role())) {
+            // Sellers only ever export their own auctions.
+            if (sellerId != null && !sellerId.equals(me.id())) {
+                return ResponseEntity.status(403).body(Map.of("message", "forbidden"));
+            }
+            scoped = me.id();
+        }
+        var filter = new ExportService.ExportFilter(scoped, auctionId, from, to, status);
+        prepare(response, "bids", fmt);
+        exportService.exportBids(filter, fmt, response.getOutputStream());
+        // The rows were streamed to the response already; null tells Spring there is nothing left to write.
+        return null;
+    }
+
+    @GetMapping("/auctions")
+    public ResponseEntity<?> auctions(@AuthenticationPrincipal AuthenticatedUser me, HttpServletResponse response,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Long sellerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String status) throws IOException {
+        ExportService.Format fmt = format(format);
+        if (fmt == null) {
+            return unsupported(format);
+        }
+        Long scoped = sellerId;
+        if (!"ADMIN".equals(me.role())) {
+            // Sellers only ever export their own auctions.
+            if (sellerId != null && !sellerId.equals(me.id())) {
+                return ResponseEntity.status(403).body(Map.of("message", "forbidden"));
+            }
+            scoped = me.id();
+        }
+        var filter = new ExportService.ExportFilter(scoped, null, from, to, status);
+        prepare(response, "auctions", fmt);
+        exportService.exportAuctionResults(filter, fmt, response.getOutputStream());
+        return null;
+    }
+
+    /** The requested format, or null if it is not one we export. */
+    private static ExportService.Format format(String format) {
+        for (ExportService.Format f : ExportService.Format.values()) {
+            if (f.name().equalsIgnoreCase(format)) {
+                return f;
+            }
+        }
+        return null;
+    }
+
+    private static ResponseEntity<?> unsupported(String format) {
+        return ResponseEntity.badRequest().body(Map.of("message",
+                "Unsupported format: " + format + " (supported: " + SUPPORTED_FORMATS + ")"));
+    }
+
+    private static void prepare(HttpServletResponse response, String name, ExportService.Format fmt) {
+        boolean csv = fmt == ExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + (csv ? ".csv" : ".ndjson") + "\"");
+    }
+}
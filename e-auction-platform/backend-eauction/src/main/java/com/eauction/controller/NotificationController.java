@@ -1,14 +1,16 @@
 package com.eauction.controller;
 
-import com.eauction.model.Notification;
-import com.eauction.model.User;
+import com.eauction.dto.NotificationView;
+import com.eauction.dto.PageCursor;
 import com.eauction.repository.NotificationRepository;
-import com.eauction.repository.UserRepository;
-import java.security.Principal;
+import com.eauction.security.AuthenticatedUser;
+import com.eauction.service.UnreadCounters;
 import java.util.List;
 import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -17,24 +19,60 @@ public class NotificationController {
     @Autowired
     private NotificationRepository notificationRepository;
     @Autowired
-    private UserRepository userRepository;
+    private UnreadCounters unreadCounters;
 
     @GetMapping("/my")
-    public List<Notification> my(Principal principal) {
-        User user = userRepository.findByUsername(principal.getName());
-        return notificationRepository.findByUser_IdOrderByCreatedAtDesc(user.getId());
+    public ResponseEntity<List<NotificationView>> my(@AuthenticationPrincipal AuthenticatedUser me,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean unreadOnly) {
+        int size = PageCursor.pageSize(limit);
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest page = PageRequest.of(0, size + 1);
+        List<NotificationView> rows;
+        if (after == null) {
+            rows = unreadOnly ? notificationRepository.findFirstUnreadPage(me.id(), page)
+                    : notificationRepository.findFirstPage(me.id(), page);
+        } else {
+            rows = unreadOnly ? notificationRepository.findUnreadPageAfter(me.id(), after.time(), after.id(), page)
+                    : notificationRepository.findPageAfter(me.id(), after.time(), after.id(), page);
+        }
+        return Pages.of(rows, size, n -> new PageCursor(n.createdAt(), n.id()), n -> n);
+    }
+
+    @GetMapping("/unread-count")
+    public Map<String, Integer> unreadCount(@AuthenticationPrincipal AuthenticatedUser me) {
+        return Map.of("unread", unreadCounters.get(me.id()));
+    }
+
+    /** Marks everything read, or only notifications up to {@code upToId} so items that arrived since stay unread. */
+    @PutMapping("/read")
+    public Map<String, Integer> markAll(@RequestBody(required = false) Map<String, Long> body,
+            @AuthenticationPrincipal AuthenticatedUser me) {
+        Long upToId = body != null ? body.get("upToId") : null;
+        long stamp = unreadCounters.stamp();
+        int updated = notificationRepository.markReadUpTo(me.id(), upToId != null ? upToId : Long.MAX_VALUE);
+        unreadCounters.removed(me.id(), updated, stamp);
+        return Map.of("updated", updated, "unread", unreadCounters.get(me.id()));
     }
 
     @PutMapping("/{id}/read")
-    public ResponseEntity<?> mark(@PathVariable long id, @RequestBody Map<String, Boolean> body, Principal principal) {
-        User user = userRepository.findByUsername(principal.getName());
+    public ResponseEntity<?> mark(@PathVariable long id, @RequestBody Map<String, Boolean> body,
+            @AuthenticationPrincipal AuthenticatedUser me) {
+        Boolean read = body.get("read");
+        long stamp = unreadCounters.stamp();
+        if (read != null && notificationRepository.setRead(id, me.id(), read) == 1) {
+            if (read) {
+                unreadCounters.removed(me.id(), 1, stamp);
+            } else {
+                unreadCounters.added(me.id(), 1, stamp);
+            }
+            return ResponseEntity.ok(Map.of("message", "updated"));
+        }
+        // Nothing changed: the flag already had that value, or the row is missing or someone else's.
         return notificationRepository.findById(id).map(n -> {
-            if (n.getUser() != null && !n.getUser().getId().equals(user.getId())) {
+            if (n.getUser() != null && !n.getUser().getId().equals(me.id())) {
                 return ResponseEntity.status(403).body(Map.of("message", "forbidden"));
             }
-            Boolean read = body.get("read");
-            n.setRead(read != null ? read : n.isRead());
-            notificationRepository.save(n);
             return ResponseEntity.ok(Map.of("message", "updated"));
         }).orElse(ResponseEntity.notFound().build());
     }
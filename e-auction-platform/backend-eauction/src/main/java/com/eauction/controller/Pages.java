@@ -0,0 +1,30 @@
+package com.eauction.controller;
+
+import com.eauction.dto.PageCursor;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pages are returned as plain JSON arrays; the cursor of the next page,
+ * if there is one, travels in the {@value #NEXT_CURSOR} header.
+ */
+public final class Pages {
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+
+    private Pages() {
+    }
+
+    /** {@code rows} is expected to hold up to {@code size + 1} rows; the extra row only signals a next page. */
+    public static <T, R> ResponseEntity<List<R>> of(List<T> rows, int size, Function<T, PageCursor> key,
+            Function<T, R> mapper) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        List<T> page = rows;
+        if (rows.size() > size) {
+            page = rows.subList(0, size);
+            response.header(NEXT_CURSOR, key.apply(page.get(size - 1)).encode());
+        }
+        return response.body(page.stream().map(mapper).toList());
+    }
+}
@@ -1,6 +1,6 @@
 package com.eauction.controller;
 
-import com.eauction.model.User;
+import com.eauction.dto.UserView;
 import com.eauction.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,7 +16,7 @@ public class UserController {
     private UserRepository userRepository;
 
     @GetMapping
-    public List<User> all() {
-        return userRepository.findAll();
+    public List<UserView> all() {
+        return userRepository.findAllViews();
     }
 }
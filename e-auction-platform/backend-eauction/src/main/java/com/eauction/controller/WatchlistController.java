@@ -1,30 +1,37 @@
 package com.eauction.controller;
 
+import com.eauction.dto.AuctionView;
+import com.eauction.dto.PageCursor;
 import com.eauction.model.Auction;
-import com.eauction.model.Watchlist;
-import com.eauction.repository.WatchlistRepository;
-import com.eauction.repository.UserRepository;
+import com.eauction.repository.AuctionRepository;
+import com.eauction.repository.AuctionRepositoryCustom;
+import com.eauction.security.AuthenticatedUser;
+import com.eauction.service.WatcherIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.security.Principal;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/watchlist")
 public class WatchlistController {
     @Autowired
-    private WatchlistRepository watchlistRepository;
+    private AuctionRepository auctionRepository;
     @Autowired
-    private UserRepository userRepository;
+    private WatcherIndex watcherIndex;
 
     @GetMapping
-    public List<Auction> list(Principal principal) {
-        var user = userRepository.findByUsername(principal.getName());
-        List<Watchlist> w = watchlistRepository.findByUser_Id(user.getId());
-        return w.stream().map(Watchlist::getAuction).collect(Collectors.toList());
+    public ResponseEntity<List<AuctionView>> list(@AuthenticationPrincipal AuthenticatedUser me,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        int size = PageCursor.pageSize(limit);
+        List<Auction> rows = auctionRepository.findPageByEndTime(AuctionRepositoryCustom.Scope.WATCHER,
+                me.id(), PageCursor.decode(cursor), size + 1);
+        return Pages.of(rows, size, a -> new PageCursor(a.getEndTime(), a.getId()),
+                a -> watcherIndex.annotate(AuctionView.from(a)));
     }
 }
@@ -1,17 +1,28 @@
 package com.eauction.controller.seller;
 
+import com.eauction.controller.Pages;
 import com.eauction.dto.AuctionCreateDto;
 import com.eauction.dto.AuctionUpdateDto;
+import com.eauction.dto.AuctionView;
+import com.eauction.dto.PageCursor;
 import com.eauction.model.Auction;
-import com.eauction.model.User;
 import com.eauction.repository.AuctionRepository;
+import com.eauction.repository.AuctionRepositoryCustom;
 import com.eauction.repository.UserRepository;
+import com.eauction.security.AuthenticatedUser;
+import com.eauction.service.AuctionBroadcaster;
+import com.eauction.service.AuctionLifecycleScheduler;
+import com.eauction.service.AuctionSearchIndex;
+import com.eauction.service.BidEngine;
+import com.eauction.service.LiveAuctionIndex;
+import com.eauction.service.NotificationOutbox;
+import com.eauction.service.WatcherIndex;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -24,21 +35,35 @@ public class SellerAuctionController {
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    private com.eauction.repository.NotificationRepository notificationRepository;
+    private NotificationOutbox notificationOutbox;
     @Autowired
-    private org.springframework.messaging.simp.SimpMessagingTemplate messagingTemplate;
+    private AuctionBroadcaster auctionBroadcaster;
+    @Autowired
+    private BidEngine bidEngine;
+    @Autowired
+    private AuctionLifecycleScheduler lifecycleScheduler;
+    @Autowired
+    private LiveAuctionIndex liveAuctionIndex;
+    @Autowired
+    private WatcherIndex watcherIndex;
+    @Autowired
+    private AuctionSearchIndex auctionSearchIndex;
 
     @GetMapping("/my")
-    public List<Auction> myAuctions(Principal principal) {
-        User seller = userRepository.findByUsername(principal.getName());
-        return auctionRepository.findBySeller_Id(seller.getId());
+    public ResponseEntity<List<AuctionView>> myAuctions(@AuthenticationPrincipal AuthenticatedUser me,
+            @RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        int size = PageCursor.pageSize(limit);
+        List<Auction> rows = auctionRepository.findPageByEndTime(AuctionRepositoryCustom.Scope.SELLER,
+                me.id(), PageCursor.decode(cursor), size + 1);
+        return Pages.of(rows, size, a -> new PageCursor(a.getEndTime(), a.getId()),
+                a -> watcherIndex.annotate(AuctionView.from(a)));
     }
 
     @PostMapping
-    public ResponseEntity<Auction> create(@Valid @RequestBody AuctionCreateDto dto, Principal principal) {
-        User seller = userRepository.findByUsername(principal.getName());
+    public ResponseEntity<AuctionView> create(@Valid @RequestBody AuctionCreateDto dto,
+            @AuthenticationPrincipal AuthenticatedUser me) {
         Auction auction = new Auction();
-        auction.setSeller(seller);
+        auction.setSeller(userRepository.getReferenceById(me.id()));
         auction.setProductName(dto.getProductName());
         auction.setCategory(dto.getCategory());
         auction.setDescription(dto.getDescription());
@@ -72,24 +97,16 @@ public class SellerAuctionController {
             auction.setBidCount(0);
         }
         LocalDateTime now = LocalDateTime.now();
-        String status;
-        if (!auction.isEnabled()) {
-            status = "DRAFT";
-        } else if (auction.getEndTime() != null && now.isAfter(auction.getEndTime())) {
-            status = "ENDED";
-        } else if (auction.getStartTime() != null && now.isBefore(auction.getStartTime())) {
-            status = "SCHEDULED";
-        } else {
-            status = "LIVE";
-        }
-        auction.setStatus(status);
+        auction.setStatus(auction.statusAt(now));
         Auction saved = auctionRepository.save(auction);
-        return ResponseEntity.ok(saved);
+        lifecycleScheduler.track(saved);
+        liveAuctionIndex.refresh(saved);
+        auctionSearchIndex.refresh(saved);
+        return ResponseEntity.ok(AuctionView.from(saved));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> update(@PathVariable long id, @Valid @RequestBody AuctionUpdateDto dto,
-            Principal principal) {
+    public ResponseEntity<?> update(@PathVariable long id, @Valid @RequestBody AuctionUpdateDto dto) {
         return auctionRepository.findById(id).map(existing -> {
             LocalDateTime now = LocalDateTime.now();
             if (existing.getStartTime() != null && now.isAfter(existing.getStartTime())) {
@@ -135,69 +152,53 @@ public class SellerAuctionController {
                 existing.setImageUrl(dto.getImageUrl());
             if (dto.getImageUrls() != null)
                 existing.setImageUrls(dto.getImageUrls());
-            String status;
-            if (!existing.isEnabled()) {
-                status = "DRAFT";
-            } else if (existing.getEndTime() != null && now.isAfter(existing.getEndTime())) {
-                status = "ENDED";
-            } else if (existing.getStartTime() != null && now.isBefore(existing.getStartTime())) {
-                status = "SCHEDULED";
-            } else {
-                status = "LIVE";
-            }
-            existing.setStatus(status);
+            existing.setStatus(existing.statusAt(now));
             Auction saved = auctionRepository.save(existing);
-            return ResponseEntity.ok(saved);
+            bidEngine.evict(id);
+            lifecycleScheduler.track(saved);
+            liveAuctionIndex.refresh(saved);
+            auctionSearchIndex.refresh(saved);
+            return ResponseEntity.ok(watcherIndex.annotate(AuctionView.from(saved)));
         }).orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}/declare-winner")
-    public ResponseEntity<?> declareWinner(@PathVariable long id, Principal principal) {
-        User seller = userRepository.findByUsername(principal.getName());
+    public ResponseEntity<?> declareWinner(@PathVariable long id, @AuthenticationPrincipal AuthenticatedUser me) {
         return auctionRepository.findById(id).map(a -> {
-            if (a.getSeller() == null || !a.getSeller().getId().equals(seller.getId())) {
+            if (a.getSeller() == null || !a.getSeller().getId().equals(me.id())) {
                 return ResponseEntity.status(403).body(Map.of("message", "forbidden"));
             }
             if (a.getHighestBidder() == null) {
                 return ResponseEntity.badRequest().body(Map.of("message", "no highest bidder"));
             }
+            if (a.getSettledAt() != null) {
+                return ResponseEntity.badRequest().body(Map.of("message", "auction already settled"));
+            }
+            // The lane stops taking bids first; a bid it accepted before that and is still persisting is
+            // rejected by the settled auction row.
+            bidEngine.close(id);
             LocalDateTime now = LocalDateTime.now();
-            a.setEnabled(false);
-            a.setStatus("ENDED");
-            if (a.getEndTime() == null || now.isBefore(a.getEndTime())) {
-                a.setEndTime(now);
+            // Settlement or a concurrent declaration may have closed it since the read; only one of them notifies.
+            if (auctionRepository.declareWinner(id, me.id(), now) == 0) {
+                return ResponseEntity.badRequest().body(Map.of("message", "auction already settled"));
             }
-            auctionRepository.save(a);
+            Auction declared = auctionRepository.findById(id).orElse(a);
+            bidEngine.evict(id);
+            lifecycleScheduler.untrack(id);
+            liveAuctionIndex.remove(id);
+            auctionSearchIndex.refresh(declared);
             java.util.Map<String, Object> update = new java.util.HashMap<>();
-            update.put("auctionId", a.getId());
-            update.put("currentBid", a.getCurrentBid());
-            update.put("bidCount", a.getBidCount());
-            update.put("endTime", a.getEndTime());
+            update.put("auctionId", declared.getId());
+            update.put("currentBid", declared.getCurrentBid());
+            update.put("bidCount", declared.getBidCount());
+            update.put("endTime", declared.getEndTime());
             update.put("status", "ENDED");
-            update.put("highestBidderId", a.getHighestBidder().getId());
-            messagingTemplate.convertAndSend("/topic/auction/" + a.getId(), update);
-            java.util.Map<String, Object> winnerMsg = new java.util.HashMap<>();
-            winnerMsg.put("message", "You won " + a.getProductName());
-            winnerMsg.put("type", "success");
-            messagingTemplate.convertAndSend("/user/" + a.getHighestBidder().getId() + "/notifications", winnerMsg);
-            com.eauction.model.Notification nw = new com.eauction.model.Notification();
-            nw.setUser(a.getHighestBidder());
-            nw.setMessage("You won " + a.getProductName());
-            nw.setType("success");
-            nw.setCreatedAt(LocalDateTime.now());
-            nw.setRead(false);
-            notificationRepository.save(nw);
-            java.util.Map<String, Object> sellerMsg = new java.util.HashMap<>();
-            sellerMsg.put("message", "Winner declared for " + a.getProductName());
-            sellerMsg.put("type", "info");
-            messagingTemplate.convertAndSend("/user/" + seller.getId() + "/notifications", sellerMsg);
-            com.eauction.model.Notification ns = new com.eauction.model.Notification();
-            ns.setUser(seller);
-            ns.setMessage("Winner declared for " + a.getProductName());
-            ns.setType("info");
-            ns.setCreatedAt(LocalDateTime.now());
-            ns.setRead(false);
-            notificationRepository.save(ns);
+            update.put("highestBidderId", declared.getHighestBidder().getId());
+            auctionBroadcaster.publish(declared.getId(), update);
+            notificationOutbox.enqueue(declared.getHighestBidder().getId(), declared.getId(),
+                    "You won " + declared.getProductName(), "success");
+            notificationOutbox.enqueue(me.id(), declared.getId(), "Winner declared for " + declared.getProductName(),
+                    "info");
             return ResponseEntity.ok(Map.of("message", "winner declared"));
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -208,6 +209,10 @@ public class SellerAuctionController {
             Boolean enabled = body.get("enabled");
             a.setEnabled(enabled != null ? enabled : a.isEnabled());
             auctionRepository.save(a);
+            bidEngine.evict(id);
+            lifecycleScheduler.track(a);
+            liveAuctionIndex.refresh(a);
+            auctionSearchIndex.refresh(a);
             return ResponseEntity.ok(Map.of("message", "updated"));
         }).orElse(ResponseEntity.notFound().build());
     }
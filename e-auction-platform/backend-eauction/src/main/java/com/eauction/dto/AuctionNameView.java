@@ -0,0 +1,7 @@
+package com.eauction.dto;
+
+public interface AuctionNameView {
+    Long getId();
+
+    String getProductName();
+}
@@ -0,0 +1,13 @@
+package com.eauction.dto;
+
+import java.time.LocalDateTime;
+
+public interface AuctionScheduleView {
+    Long getId();
+
+    LocalDateTime getStartTime();
+
+    LocalDateTime getEndTime();
+
+    String getStatus();
+}
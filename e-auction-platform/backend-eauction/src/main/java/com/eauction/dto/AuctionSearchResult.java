@@ -0,0 +1,12 @@
+package com.eauction.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of search hits, newest first. {@code total} and {@code facets}
+ * cover every match, not just this page; each facet counts as if its own
+ * filter were not applied.
+ */
+public record AuctionSearchResult(int total, Map<String, Map<String, Integer>> facets, List<AuctionView> items) {
+}
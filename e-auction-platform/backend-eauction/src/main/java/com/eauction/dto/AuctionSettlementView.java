@@ -0,0 +1,15 @@
+package com.eauction.dto;
+
+public interface AuctionSettlementView {
+    Long getId();
+
+    String getProductName();
+
+    Long getSellerId();
+
+    Long getWinnerId();
+
+    Double getPrice();
+
+    Integer getBidCount();
+}
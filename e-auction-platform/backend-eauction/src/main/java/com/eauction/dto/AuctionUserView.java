@@ -0,0 +1,7 @@
+package com.eauction.dto;
+
+public interface AuctionUserView {
+    Long getAuctionId();
+
+    Long getUserId();
+}
@@ -0,0 +1,66 @@
+package com.eauction.dto;
+
+import com.eauction.model.Auction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read model of an auction. Serializes to the same shape as the entity but
+ * carries only the id and username of the seller and highest bidder, plus
+ * the number of users watching it.
+ */
+public record AuctionView(
+        Long id,
+        String productName,
+        String category,
+        String description,
+        String condition,
+        double startingPrice,
+        LocalDateTime startTime,
+        LocalDateTime endTime,
+        boolean enabled,
+        Double currentBid,
+        Integer bidCount,
+        Double minIncrement,
+        Double buyNowPrice,
+        Boolean autoExtend,
+        String status,
+        UserRef seller,
+        UserRef highestBidder,
+        String imageUrl,
+        List<String> imageUrls,
+        int watchers) {
+
+    public static AuctionView from(Auction a) {
+        return new AuctionView(a.getId(), a.getProductName(), a.getCategory(), a.getDescription(),
+                a.getCondition(), a.getStartingPrice(), a.getStartTime(), a.getEndTime(), a.isEnabled(),
+                a.getCurrentBid(), a.getBidCount(), a.getMinIncrement(), a.getBuyNowPrice(), a.getAutoExtend(),
+                a.getStatus(), UserRef.from(a.getSeller()), UserRef.from(a.getHighestBidder()), a.getImageUrl(),
+                a.getImageUrls() == null ? null : Collections.unmodifiableList(new ArrayList<>(a.getImageUrls())),
+                0);
+    }
+
+    public AuctionView withBid(double amount, int count, LocalDateTime newEndTime, UserRef bidder) {
+        return new AuctionView(id, productName, category, description, condition, startingPrice, startTime,
+                newEndTime, enabled, amount, count, minIncrement, buyNowPrice, autoExtend, status, seller,
+                bidder, imageUrl, imageUrls, watchers);
+    }
+
+    public AuctionView withStatus(String newStatus) {
+        return new AuctionView(id, productName, category, description, condition, startingPrice, startTime,
+                endTime, enabled, currentBid, bidCount, minIncrement, buyNowPrice, autoExtend, newStatus, seller,
+                highestBidder, imageUrl, imageUrls, watchers);
+    }
+
+    public AuctionView withWatchers(int count) {
+        if (count == watchers) {
+            return this;
+        }
+        return new AuctionView(id, productName, category, description, condition, startingPrice, startTime,
+                endTime, enabled, currentBid, bidCount, minIncrement, buyNowPrice, autoExtend, status, seller,
+                highestBidder, imageUrl, imageUrls, count);
+    }
+}
@@ -0,0 +1,11 @@
+package com.eauction.dto;
+
+import java.time.LocalDateTime;
+
+public record BidView(Long id, double amount, LocalDateTime bidTime, UserRef bidder) {
+
+    /** Constructor expression target for JPQL {@code select new}. */
+    public BidView(Long id, double amount, LocalDateTime bidTime, Long bidderId, String bidderUsername) {
+        this(id, amount, bidTime, bidderId == null ? null : new UserRef(bidderId, bidderUsername));
+    }
+}
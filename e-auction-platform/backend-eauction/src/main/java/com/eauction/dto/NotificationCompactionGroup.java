@@ -0,0 +1,19 @@
+package com.eauction.dto;
+
+public interface NotificationCompactionGroup {
+    Long getUserId();
+
+    Long getAuctionId();
+
+    String getType();
+
+    String getMessage();
+
+    Long getKeepId();
+
+    Long getRowCount();
+
+    Long getTotal();
+
+    Long getUnread();
+}
@@ -0,0 +1,7 @@
+package com.eauction.dto;
+
+import java.time.LocalDateTime;
+
+public record NotificationView(Long id, String message, String type, boolean read, LocalDateTime createdAt,
+        int count) {
+}
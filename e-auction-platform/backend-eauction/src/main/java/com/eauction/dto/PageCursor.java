@@ -0,0 +1,41 @@
+package com.eauction.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position: the sort timestamp and id of the last row of a
+ * page. A {@code null} time marks a row whose sort column is null.
+ */
+public record PageCursor(LocalDateTime time, long id) {
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    public static int pageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(MAX_PAGE_SIZE, requested));
+    }
+
+    public String encode() {
+        String raw = (time == null ? "~" : time.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            String t = raw.substring(0, sep);
+            long id = Long.parseLong(raw.substring(sep + 1));
+            return new PageCursor("~".equals(t) ? null : LocalDateTime.parse(t), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
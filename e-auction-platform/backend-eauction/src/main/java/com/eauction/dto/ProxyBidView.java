@@ -0,0 +1,13 @@
+package com.eauction.dto;
+
+import java.time.LocalDateTime;
+
+public interface ProxyBidView {
+    Long getBidderId();
+
+    String getUsername();
+
+    double getMaxAmount();
+
+    LocalDateTime getPlacedAt();
+}
@@ -0,0 +1,9 @@
+package com.eauction.dto;
+
+import com.eauction.model.User;
+
+public record UserRef(Long id, String username) {
+    public static UserRef from(User user) {
+        return user == null ? null : new UserRef(user.getId(), user.getUsername());
+    }
+}
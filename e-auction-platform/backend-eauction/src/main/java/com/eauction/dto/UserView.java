@@ -0,0 +1,4 @@
+package com.eauction.dto;
+
+public record UserView(Long id, String username, String role, boolean enabled) {
+}
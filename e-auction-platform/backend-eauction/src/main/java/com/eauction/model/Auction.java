@@ -7,13 +7,17 @@ import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Column;
 import lombok.Getter;
+import org.hibernate.annotations.BatchSize;
 import lombok.Setter;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @jakarta.persistence.Table(indexes = {
-        @jakarta.persistence.Index(name = "idx_status_time", columnList = "status,startTime,endTime")
+        @jakarta.persistence.Index(name = "idx_status_time", columnList = "status,startTime,endTime"),
+        @jakarta.persistence.Index(name = "idx_end_time_id", columnList = "endTime,id"),
+        @jakarta.persistence.Index(name = "idx_seller_end_time_id", columnList = "seller_id,endTime,id"),
+        @jakarta.persistence.Index(name = "idx_settled_end_time", columnList = "settledAt,endTime")
 })
 @Getter
 @Setter
@@ -36,6 +40,8 @@ public class Auction {
     private Double buyNowPrice;
     private Boolean autoExtend;
     private String status;
+    // Set once the winner and seller have been notified, by settlement, Buy Now or a declared winner.
+    private LocalDateTime settledAt;
 
     @ManyToOne
     private User seller;
@@ -45,7 +51,23 @@ public class Auction {
 
     @Column(length = 2048)
     private String imageUrl;
+    // Sized above PageCursor.MAX_PAGE_SIZE so a whole page loads its images in one select.
     @ElementCollection
+    @BatchSize(size = 256)
     @Column(name = "image_urls", length = 2048)
     private List<String> imageUrls;
+
+    /** The status this auction should have at {@code now}, from its enabled flag and time window. */
+    public String statusAt(LocalDateTime now) {
+        if (!enabled) {
+            return "DRAFT";
+        }
+        if (endTime != null && now.isAfter(endTime)) {
+            return "ENDED";
+        }
+        if (startTime != null && now.isBefore(startTime)) {
+            return "SCHEDULED";
+        }
+        return "LIVE";
+    }
 }
@@ -9,6 +9,10 @@ import lombok.Setter;
 import java.time.LocalDateTime;
 
 @Entity
+@jakarta.persistence.Table(indexes = {
+        @jakarta.persistence.Index(name = "idx_bid_auction_time_id", columnList = "auction_id,bidTime,id"),
+        @jakarta.persistence.Index(name = "idx_bid_bidder_auction", columnList = "bidder_id,auction_id")
+})
 @Getter
 @Setter
 public class Bid {
@@ -10,6 +10,12 @@ import lombok.Getter;
 import lombok.Setter;
 
 @Entity
+@jakarta.persistence.Table(indexes = {
+        @jakarta.persistence.Index(name = "idx_notification_user_read_created", columnList = "user_id,is_read,createdAt"),
+        // Matches the grouping of retention's compaction query, so each chunk is a range scan in group order.
+        @jakarta.persistence.Index(name = "idx_notification_compaction",
+                columnList = "auctionId,user_id,type,message,createdAt")
+})
 @Getter
 @Setter
 public class Notification {
@@ -21,6 +27,10 @@ public class Notification {
     @Column(name = "is_read")
     private boolean read;
     private LocalDateTime createdAt;
+    // Set for notifications about one auction, which lets retention collapse repeats per auction.
+    private Long auctionId;
+    // Number of notifications this row stands for after compaction; null means 1.
+    private Integer repeatCount;
     @ManyToOne
     private User user;
 }
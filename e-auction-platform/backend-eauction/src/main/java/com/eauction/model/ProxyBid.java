@@ -0,0 +1,32 @@
+package com.eauction.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import lombok.Getter;
+import lombok.Setter;
+import java.time.LocalDateTime;
+
+/** A bidder's hidden maximum on an auction; the bid engine bids on their behalf up to it. */
+@Entity
+@jakarta.persistence.Table(uniqueConstraints = {
+        @jakarta.persistence.UniqueConstraint(name = "uk_proxy_auction_bidder",
+                columnNames = {"auction_id", "bidder_id"})
+})
+@Getter
+@Setter
+public class ProxyBid {
+    @Id
+    @GeneratedValue
+    private Long id;
+    private double maxAmount;
+    // When maxAmount was last raised; equal maximums are won by the earlier one.
+    private LocalDateTime placedAt;
+
+    @ManyToOne
+    private Auction auction;
+
+    @ManyToOne
+    private User bidder;
+}
@@ -3,12 +3,22 @@ package com.eauction.model;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Locale;
+
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_users_username_key", columnNames = "usernameKey")
+}, indexes = {
+        @Index(name = "idx_users_username", columnList = "username")
+})
 @Getter
 @Setter
 public class User {
@@ -16,7 +26,19 @@ public class User {
     @GeneratedValue
     private Long id;
     private String username;
+    // Lower-cased username; its unique constraint makes usernames case-insensitively unique on any database.
+    private String usernameKey;
     private String password;
     private String role;
     private boolean enabled;
+
+    @PrePersist
+    @PreUpdate
+    void normalizeUsername() {
+        usernameKey = keyOf(username);
+    }
+
+    public static String keyOf(String username) {
+        return username == null ? null : username.toLowerCase(Locale.ROOT);
+    }
 }
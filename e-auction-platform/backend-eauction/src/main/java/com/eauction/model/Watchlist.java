@@ -8,6 +8,9 @@ import lombok.Getter;
 import lombok.Setter;
 
 @Entity
+@jakarta.persistence.Table(indexes = {
+        @jakarta.persistence.Index(name = "idx_watch_user_auction", columnList = "user_id,auction_id")
+})
 @Getter
 @Setter
 public class Watchlist {
@@ -1,15 +1,88 @@
 package com.eauction.repository;
 
+import com.eauction.dto.AuctionNameView;
+import com.eauction.dto.AuctionScheduleView;
+import com.eauction.dto.AuctionSettlementView;
 import com.eauction.model.Auction;
+import com.eauction.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface AuctionRepository extends JpaRepository<Auction, Long> {
-    @Query("select a from Auction a where a.enabled = true and a.startTime <= CURRENT_TIMESTAMP and a.endTime >= CURRENT_TIMESTAMP")
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface AuctionRepository extends JpaRepository<Auction, Long>, AuctionRepositoryCustom {
+    @Query("select a from Auction a left join fetch a.seller left join fetch a.highestBidder "
+            + "where a.enabled = true and a.startTime <= CURRENT_TIMESTAMP and a.endTime >= CURRENT_TIMESTAMP")
     java.util.List<Auction> findLiveAuctions();
 
-    java.util.List<Auction> findBySeller_Id(Long sellerId);
+    @Query("select a from Auction a left join fetch a.seller left join fetch a.highestBidder where a.id in ?1")
+    java.util.List<Auction> findWithUsersByIdIn(Collection<Long> ids);
+
+    @Query("select a from Auction a left join fetch a.seller left join fetch a.highestBidder "
+            + "where a.id > ?1 order by a.id")
+    java.util.List<Auction> findChunkAfter(Long afterId, Pageable page);
+
+    @Query("select a.id as id, a.productName as productName from Auction a where a.id in ?1")
+    java.util.List<AuctionNameView> findNamesByIdIn(Collection<Long> ids);
+
+    // Bid decisions are made in memory and may be persisted out of order; the
+    // bidCount guard keeps an older decision from overwriting a newer one, and
+    // a settled auction never changes again.
+    @Modifying
+    @Transactional
+    @Query("update Auction a set a.currentBid = ?2, a.bidCount = ?3, a.highestBidder = ?4, a.endTime = ?5 "
+            + "where a.id = ?1 and (a.bidCount is null or a.bidCount < ?3) and a.settledAt is null")
+    int applyAcceptedBid(Long id, Double currentBid, Integer bidCount, User highestBidder, LocalDateTime endTime);
+
+    boolean existsByIdAndSettledAtIsNotNull(Long id);
+
+    // Only a live auction still below its Buy Now price can be bought, and only once.
+    @Modifying
+    @Transactional
+    @Query("update Auction a set a.currentBid = a.buyNowPrice, a.bidCount = ?2, a.highestBidder = ?3, "
+            + "a.endTime = ?4, a.status = 'ENDED', a.settledAt = ?4 where a.id = ?1 and a.enabled = true "
+            + "and (a.status is null or a.status <> 'ENDED') and a.startTime <= ?4 and a.endTime > ?4 "
+            + "and a.buyNowPrice is not null and (a.currentBid is null or a.currentBid < a.buyNowPrice) "
+            + "and (a.bidCount is null or a.bidCount < ?2)")
+    int applyBuyNow(Long id, Integer bidCount, User buyer, LocalDateTime now);
+
+    // Settles the auction for its seller unless settlement or another declaration got there first; the end time
+    // only ever moves earlier.
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("update Auction a set a.settledAt = ?3, a.status = 'ENDED', a.enabled = false, "
+            + "a.endTime = case when a.endTime is null or a.endTime > ?3 then ?3 else a.endTime end "
+            + "where a.id = ?1 and a.seller.id = ?2 and a.settledAt is null")
+    int declareWinner(Long id, Long sellerId, LocalDateTime now);
+
+    @Query("select a.id from Auction a where a.settledAt is null and a.enabled = true and a.endTime <= ?1 "
+            + "and a.id > ?2 order by a.id")
+    java.util.List<Long> findUnsettledIds(LocalDateTime endedBefore, Long afterId, Pageable page);
+
+    // Locks the rows so that concurrent settlement runs, on this node or another, never settle one twice.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a.id as id, a.productName as productName, a.seller.id as sellerId, "
+            + "a.highestBidder.id as winnerId, a.currentBid as price, a.bidCount as bidCount from Auction a "
+            + "where a.id in ?1 and a.settledAt is null and a.enabled = true and a.endTime <= ?2")
+    java.util.List<AuctionSettlementView> lockUnsettled(Collection<Long> ids, LocalDateTime endedBefore);
+
+    @Modifying
+    @Query("update Auction a set a.settledAt = ?2, a.status = 'ENDED', a.enabled = false where a.id in ?1")
+    int markSettled(Collection<Long> ids, LocalDateTime settledAt);
+
+    @Query("select a.id as id, a.startTime as startTime, a.endTime as endTime, a.status as status from Auction a "
+            + "where a.enabled = true and (a.status is null or a.status in ('SCHEDULED', 'LIVE'))")
+    java.util.List<AuctionScheduleView> findLifecycleCandidates();
 
-    @Query("select distinct b.auction from Bid b where b.bidder.id = ?1")
-    java.util.List<Auction> findAuctionsByBidderId(Long bidderId);
+    @Modifying
+    @Transactional
+    @Query("update Auction a set a.status = ?2 where a.id in ?1 and a.enabled = true "
+            + "and (a.status is null or a.status <> 'ENDED')")
+    int updateStatus(Collection<Long> ids, String status);
 }
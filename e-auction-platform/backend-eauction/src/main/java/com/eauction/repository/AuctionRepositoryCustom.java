@@ -0,0 +1,18 @@
+package com.eauction.repository;
+
+import com.eauction.dto.PageCursor;
+import com.eauction.model.Auction;
+
+import java.util.List;
+
+public interface AuctionRepositoryCustom {
+    enum Scope {
+        ALL, SELLER, BIDDER, WATCHER
+    }
+
+    /**
+     * Auctions ordered by {@code (endTime, id)} starting after {@code after}
+     * ({@code null} for the first page). Rows without an end time sort first.
+     */
+    List<Auction> findPageByEndTime(Scope scope, Long userId, PageCursor after, int limit);
+}
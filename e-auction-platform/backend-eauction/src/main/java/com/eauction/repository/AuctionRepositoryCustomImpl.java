@@ -0,0 +1,47 @@
+package com.eauction.repository;
+
+import com.eauction.dto.PageCursor;
+import com.eauction.model.Auction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class AuctionRepositoryCustomImpl implements AuctionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Auction> findPageByEndTime(Scope scope, Long userId, PageCursor after, int limit) {
+        List<String> where = new ArrayList<>();
+        switch (scope) {
+            case SELLER -> where.add("a.seller.id = :userId");
+            case BIDDER -> where.add("exists (select 1 from Bid b where b.auction = a and b.bidder.id = :userId)");
+            case WATCHER -> where.add("exists (select 1 from Watchlist w where w.auction = a and w.user.id = :userId)");
+            default -> {
+            }
+        }
+        if (after != null && after.time() == null) {
+            where.add("((a.endTime is null and a.id > :afterId) or a.endTime is not null)");
+        } else if (after != null) {
+            where.add("(a.endTime > :afterTime or (a.endTime = :afterTime and a.id > :afterId))");
+        }
+        String jpql = "select a from Auction a left join fetch a.seller left join fetch a.highestBidder"
+                + (where.isEmpty() ? "" : " where " + String.join(" and ", where))
+                + " order by a.endTime asc, a.id asc";
+        TypedQuery<Auction> query = em.createQuery(jpql, Auction.class).setMaxResults(limit);
+        if (scope != Scope.ALL) {
+            query.setParameter("userId", userId);
+        }
+        if (after != null) {
+            query.setParameter("afterId", after.id());
+            if (after.time() != null) {
+                query.setParameter("afterTime", after.time());
+            }
+        }
+        return query.getResultList();
+    }
+}
@@ -1,8 +1,26 @@
 package com.eauction.repository;
 
+import com.eauction.dto.AuctionUserView;
+import com.eauction.dto.BidView;
 import com.eauction.model.Bid;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 
 public interface BidRepository extends JpaRepository<Bid, Long> {
-    java.util.List<Bid> findByAuction_IdOrderByBidTimeDesc(Long auctionId);
+    @Query("select new com.eauction.dto.BidView(b.id, b.amount, b.bidTime, u.id, u.username) from Bid b "
+            + "left join b.bidder u where b.auction.id = ?1 order by b.bidTime desc, b.id desc")
+    java.util.List<BidView> findFirstPage(Long auctionId, Pageable page);
+
+    @Query("select new com.eauction.dto.BidView(b.id, b.amount, b.bidTime, u.id, u.username) from Bid b "
+            + "left join b.bidder u where b.auction.id = ?1 and (b.bidTime < ?2 or (b.bidTime = ?2 and b.id < ?3)) "
+            + "order by b.bidTime desc, b.id desc")
+    java.util.List<BidView> findPageAfter(Long auctionId, LocalDateTime bidTime, Long id, Pageable page);
+
+    @Query("select distinct b.auction.id as auctionId, b.bidder.id as userId from Bid b "
+            + "where b.auction.id in ?1 and b.bidder is not null")
+    java.util.List<AuctionUserView> findBidderIdsByAuctionIdIn(Collection<Long> auctionIds);
 }
@@ -1,9 +1,81 @@
 package com.eauction.repository;
 
+import com.eauction.dto.NotificationCompactionGroup;
+import com.eauction.dto.NotificationView;
 import com.eauction.model.Notification;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByUser_IdOrderByCreatedAtDesc(Long userId);
+    @Query("select new com.eauction.dto.NotificationView(n.id, n.message, n.type, n.read, n.createdAt, "
+            + "coalesce(n.repeatCount, 1)) "
+            + "from Notification n where n.user.id = ?1 order by n.createdAt desc, n.id desc")
+    List<NotificationView> findFirstPage(Long userId, Pageable page);
+
+    @Query("select new com.eauction.dto.NotificationView(n.id, n.message, n.type, n.read, n.createdAt, "
+            + "coalesce(n.repeatCount, 1)) "
+            + "from Notification n where n.user.id = ?1 "
+            + "and (n.createdAt < ?2 or (n.createdAt = ?2 and n.id < ?3)) order by n.createdAt desc, n.id desc")
+    List<NotificationView> findPageAfter(Long userId, LocalDateTime createdAt, Long id, Pageable page);
+
+    @Query("select new com.eauction.dto.NotificationView(n.id, n.message, n.type, n.read, n.createdAt, "
+            + "coalesce(n.repeatCount, 1)) "
+            + "from Notification n where n.user.id = ?1 and n.read = false order by n.createdAt desc, n.id desc")
+    List<NotificationView> findFirstUnreadPage(Long userId, Pageable page);
+
+    @Query("select new com.eauction.dto.NotificationView(n.id, n.message, n.type, n.read, n.createdAt, "
+            + "coalesce(n.repeatCount, 1)) "
+            + "from Notification n where n.user.id = ?1 and n.read = false "
+            + "and (n.createdAt < ?2 or (n.createdAt = ?2 and n.id < ?3)) order by n.createdAt desc, n.id desc")
+    List<NotificationView> findUnreadPageAfter(Long userId, LocalDateTime createdAt, Long id, Pageable page);
+
+    @Query("select count(n) from Notification n where n.user.id = ?1 and n.read = false")
+    long countUnread(Long userId);
+
+    /** Marks every unread notification of the user up to and including {@code upToId}; returns rows changed. */
+    @Modifying
+    @Transactional
+    @Query("update Notification n set n.read = true where n.user.id = ?1 and n.read = false and n.id <= ?2")
+    int markReadUpTo(Long userId, Long upToId);
+
+    /** Returns 1 only if the notification belongs to the user and its flag actually changed. */
+    @Modifying
+    @Transactional
+    @Query("update Notification n set n.read = ?3 where n.id = ?1 and n.user.id = ?2 and n.read <> ?3")
+    int setRead(Long id, Long userId, boolean read);
+
+    /**
+     * Runs of identical notifications about auctions from {@code fromAuctionId} on, created before
+     * {@code before}, in auction order; the newest row of each run is kept and the older ones are folded into it.
+     */
+    @Query("select n.user.id as userId, n.auctionId as auctionId, n.type as type, n.message as message, "
+            + "max(n.id) as keepId, count(n) as rowCount, sum(coalesce(n.repeatCount, 1)) as total, "
+            + "sum(case when n.read = false then 1 else 0 end) as unread "
+            + "from Notification n where n.auctionId >= ?3 and n.type in ?1 and n.createdAt < ?2 "
+            + "group by n.auctionId, n.user.id, n.type, n.message having count(n) > 1 order by n.auctionId")
+    List<NotificationCompactionGroup> findCompactionGroups(Collection<String> types, LocalDateTime before,
+            Long fromAuctionId, Pageable page);
+
+    @Modifying
+    @Query("update Notification n set n.repeatCount = ?2, n.read = ?3 where n.id = ?1")
+    int collapseInto(Long keepId, Integer total, boolean read);
+
+    @Modifying
+    @Query("delete from Notification n where n.user.id = ?1 and n.auctionId = ?2 and n.type = ?3 "
+            + "and n.message = ?4 and n.id < ?5")
+    int deleteCollapsed(Long userId, Long auctionId, String type, String message, Long keepId);
+
+    @Query("select n.id from Notification n where n.read = true and n.createdAt < ?1 and n.id > ?2 order by n.id")
+    List<Long> findReadIdsBefore(LocalDateTime before, Long afterId, Pageable page);
+
+    @Modifying
+    @Transactional
+    @Query("delete from Notification n where n.id in ?1")
+    int deleteByIds(Collection<Long> ids);
 }
@@ -0,0 +1,24 @@
+package com.eauction.repository;
+
+import com.eauction.dto.ProxyBidView;
+import com.eauction.model.ProxyBid;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ProxyBidRepository extends JpaRepository<ProxyBid, Long> {
+    @Query("select p.bidder.id as bidderId, p.bidder.username as username, p.maxAmount as maxAmount, "
+            + "p.placedAt as placedAt from ProxyBid p where p.auction.id = ?1")
+    List<ProxyBidView> findByAuctionId(Long auctionId);
+
+    // Maximums only ever go up, so a late write of an older maximum is a no-op.
+    @Modifying
+    @Transactional
+    @Query("update ProxyBid p set p.maxAmount = ?3, p.placedAt = ?4 "
+            + "where p.auction.id = ?1 and p.bidder.id = ?2 and p.maxAmount < ?3")
+    int raise(Long auctionId, Long bidderId, double maxAmount, LocalDateTime placedAt);
+}
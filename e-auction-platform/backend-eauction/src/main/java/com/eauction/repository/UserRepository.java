@@ -1,8 +1,28 @@
 package com.eauction.repository;
 
+import com.eauction.dto.UserView;
 import com.eauction.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByUsername(String username);
-}
\ No newline at end of file
+
+    boolean existsByUsernameKey(String usernameKey);
+
+    @Query("select u.usernameKey from User u where u.usernameKey in ?1")
+    java.util.List<String> findExistingUsernameKeys(Collection<String> usernameKeys);
+
+    // Rows created before usernameKey existed.
+    @Modifying
+    @Transactional
+    @Query("update User u set u.usernameKey = lower(u.username) where u.usernameKey is null")
+    int backfillUsernameKeys();
+
+    @Query("select new com.eauction.dto.UserView(u.id, u.username, u.role, u.enabled) from User u order by u.id")
+    java.util.List<UserView> findAllViews();
+}
@@ -0,0 +1,16 @@
+package com.eauction.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/** Identity carried by a verified token. Immutable, so one instance is shared by every request using the token. */
+public record AuthenticatedUser(Long id, String username, String role, List<GrantedAuthority> authorities)
+        implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
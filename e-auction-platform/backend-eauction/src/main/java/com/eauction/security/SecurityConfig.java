@@ -26,8 +26,10 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/**", "/ws/**", "/topic/**", "/static/**", "/", "/index.html")
                         .permitAll()
-                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/api/admin/**", "/actuator/**").hasRole("ADMIN")
                         .requestMatchers("/api/seller/**").hasRole("SELLER")
+                        .requestMatchers("/api/export/**").hasAnyRole("SELLER", "ADMIN")
                         .requestMatchers("/api/buyer/**").hasRole("BUYER")
                         .requestMatchers(HttpMethod.POST, "/api/auctions/**").hasRole("SELLER")
                         .requestMatchers(HttpMethod.PUT, "/api/auctions/**").hasRole("SELLER")
@@ -47,6 +49,7 @@ public class SecurityConfig {
         config.addAllowedOrigin("https://bidspark.netlify.app");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        config.addExposedHeader("X-Next-Cursor");
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,29 +1,72 @@
 package com.eauction.security;
 
 import com.eauction.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.env.Environment;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TokenService {
     private final SecretKey key;
+    private final JwtParser parser;
     private final long expirationMillis = 1000L * 60 * 60 * 2;
 
-    public TokenService(Environment env) {
+    // Tokens whose signature has already been checked, kept until their own exp.
+    private final Cache<String, VerifiedToken> verified;
+
+    private record VerifiedToken(AuthenticatedUser user, long expiresAt) {
+    }
+
+    public TokenService(Environment env, MeterRegistry meterRegistry,
+            @Value("${security.token-cache.max-size:10000}") long cacheSize) {
         String envSecret = env.getProperty("jwt.secret");
         String sysSecret = System.getenv("JWT_SECRET");
         String effectiveSecret = envSecret != null ? envSecret
                 : (sysSecret != null ? sysSecret : "local-dev-secret-please-change-32-bytes-minimum-123456");
         byte[] bytes = effectiveSecret.getBytes(StandardCharsets.UTF_8);
         this.key = Keys.hmacShaKeyFor(bytes);
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String token, VerifiedToken v, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, v.expiresAt() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, VerifiedToken v, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, VerifiedToken v, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "auth.tokens");
     }
 
     public String generateToken(User user) {
@@ -39,26 +82,36 @@ public class TokenService {
                 .compact();
     }
 
-    public User getUserByToken(String token) {
+    /** Returns the principal for a valid, unexpired token, or null. */
+    public AuthenticatedUser authenticate(String token) {
+        VerifiedToken hit = verified.get(token, this::verify);
+        if (hit == null) {
+            return null;
+        }
+        if (hit.expiresAt() <= System.currentTimeMillis()) {
+            verified.invalidate(token);
+            return null;
+        }
+        return hit.user();
+    }
+
+    private VerifiedToken verify(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            User user = new User();
-            user.setUsername(claims.getSubject());
-            Object id = claims.get("userId");
-            if (id != null) {
-                try {
-                    user.setId(Long.parseLong(id.toString()));
-                } catch (NumberFormatException ignored) {
-                }
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() == null) {
+                return null;
+            }
+            // Endpoints identify the caller by this id, so a token without one is unusable.
+            Object userId = claims.get("userId");
+            if (userId == null) {
+                return null;
             }
-            Object role = claims.get("role");
-            user.setRole(role != null ? role.toString() : "BIDDER");
-            user.setEnabled(true);
-            return user;
+            long id = Long.parseLong(userId.toString());
+            Object claimedRole = claims.get("role");
+            String role = (claimedRole != null ? claimedRole.toString() : "BIDDER").toUpperCase(Locale.ROOT);
+            AuthenticatedUser user = new AuthenticatedUser(id, claims.getSubject(), role,
+                    List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+            return new VerifiedToken(user, claims.getExpiration().getTime());
         } catch (Exception e) {
             return null;
         }
@@ -0,0 +1,80 @@
+package com.eauction.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes auction state changes to {@code /topic/auction/{id}}. With
+ * conflation on, updates are merged per auction (last value wins per field)
+ * and only the latest state is sent once per tick, so subscribers of a hot
+ * auction get at most one frame per tick instead of one per bid.
+ */
+@Service
+public class AuctionBroadcaster {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final boolean conflate;
+    private final Map<Long, Map<String, Object>> pending = new ConcurrentHashMap<>();
+    private final Counter published;
+    private final Counter conflated;
+
+    public AuctionBroadcaster(SimpMessagingTemplate messagingTemplate, MeterRegistry registry,
+            @Value("${auction.broadcast.conflate:false}") boolean conflate) {
+        this.messagingTemplate = messagingTemplate;
+        this.conflate = conflate;
+        this.published = Counter.builder("auction.broadcast.published").register(registry);
+        this.conflated = Counter.builder("auction.broadcast.conflated")
+                .description("Updates merged into a later frame instead of being sent")
+                .register(registry);
+    }
+
+    /**
+     * The map is owned by the broadcaster after this call and must not be
+     * modified by the caller.
+     */
+    public void publish(long auctionId, Map<String, Object> update) {
+        if (!conflate) {
+            send(auctionId, update);
+            return;
+        }
+        pending.merge(auctionId, update, (previous, latest) -> {
+            conflated.increment();
+            // Bids are published from request threads, so an older bid can arrive after a newer one.
+            if (bidCount(latest) < bidCount(previous)) {
+                latest.forEach(previous::putIfAbsent);
+            } else {
+                previous.putAll(latest);
+            }
+            return previous;
+        });
+    }
+
+    private static long bidCount(Map<String, Object> update) {
+        return update.get("bidCount") instanceof Number n ? n.longValue() : -1;
+    }
+
+    @Scheduled(fixedDelayString = "${auction.broadcast.tick-ms:75}")
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (Long auctionId : pending.keySet()) {
+            Map<String, Object> update = pending.remove(auctionId);
+            if (update != null) {
+                send(auctionId, update);
+            }
+        }
+    }
+
+    private void send(long auctionId, Map<String, Object> update) {
+        messagingTemplate.convertAndSend("/topic/auction/" + auctionId, update);
+        published.increment();
+    }
+}
@@ -0,0 +1,10 @@
+package com.eauction.service;
+
+import java.util.List;
+
+/**
+ * Published when live auctions are {@code leadMs} away from their current
+ * {@code endTime}.
+ */
+public record AuctionEndingSoonEvent(long leadMs, List<Long> auctionIds) {
+}
@@ -0,0 +1,38 @@
+package com.eauction.service;
+
+import com.eauction.dto.AuctionView;
+
+import java.time.ZoneOffset;
+import java.util.function.ToLongFunction;
+
+/** Sort orders of the live browse feeds; ties are broken by ascending id. */
+public enum AuctionFeed {
+    ENDING_SOON("ending-soon", v -> v.endTime() == null ? Long.MAX_VALUE
+            : v.endTime().toInstant(ZoneOffset.UTC).toEpochMilli()),
+    LOWEST_PRICE("lowest-price", v -> Math.round((v.currentBid() == null ? v.startingPrice() : v.currentBid())
+            * 100)),
+    MOST_BIDS("most-bids", v -> v.bidCount() == null ? 0 : -(long) v.bidCount());
+
+    private final String path;
+    private final ToLongFunction<AuctionView> key;
+
+    AuctionFeed(String path, ToLongFunction<AuctionView> key) {
+        this.path = path;
+        this.key = key;
+    }
+
+    /** The feed named by its URL segment, or {@code null}. */
+    public static AuctionFeed of(String path) {
+        for (AuctionFeed f : values()) {
+            if (f.path.equals(path)) {
+                return f;
+            }
+        }
+        return null;
+    }
+
+    /** Position of the auction in this feed, ascending. */
+    long key(AuctionView v) {
+        return key.applyAsLong(v);
+    }
+}
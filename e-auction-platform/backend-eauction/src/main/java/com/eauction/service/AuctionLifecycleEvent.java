@@ -0,0 +1,10 @@
+package com.eauction.service;
+
+import java.util.List;
+
+/**
+ * Published after a batch of auctions has been moved to {@code status} and
+ * the change has been persisted.
+ */
+public record AuctionLifecycleEvent(String status, List<Long> auctionIds) {
+}
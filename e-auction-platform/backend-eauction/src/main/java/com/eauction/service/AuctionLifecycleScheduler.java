@@ -0,0 +1,233 @@
+package com.eauction.service;
+
+import com.eauction.dto.AuctionScheduleView;
+import com.eauction.model.Auction;
+import com.eauction.repository.AuctionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Moves auctions SCHEDULED -> LIVE at {@code startTime} and LIVE -> ENDED at
+ * {@code endTime}. Deadlines are loaded once at startup and afterwards kept
+ * current by the controllers and the bid path, so the database is never
+ * polled. A changed deadline (e.g. auto-extend) simply schedules a new wheel
+ * entry; the stale one is recognised and ignored when it fires. An END that
+ * fires is confirmed on the auction's bid lane before the auction is ended,
+ * so an extension racing the old deadline keeps the auction running.
+ *
+ * <p>The same wheel carries the "ending soon" warnings: for every lead in
+ * {@code auction.ending-soon.leads-ms} still ahead of a live end time, an
+ * {@link AuctionEndingSoonEvent} is published that long before the end. They
+ * follow extensions the same way, so an extension that moves the end back
+ * past a lead warns again.
+ */
+@Service
+public class AuctionLifecycleScheduler {
+
+    private enum Phase {
+        START, END, WARN
+    }
+
+    // For WARN, {@code at} is the end time being warned about and {@code lead} how long before it the entry fires.
+    private record Deadline(long auctionId, Phase phase, long at, long lead) {
+    }
+
+    private record Schedule(long startAt, long endAt) {
+    }
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final AuctionRepository auctionRepository;
+    private final AuctionBroadcaster auctionBroadcaster;
+    private final BidEngine bidEngine;
+    private final ApplicationEventPublisher events;
+    private final TimingWheel<Deadline> wheel;
+    // A j.u.c. lock rather than a monitor, so contended virtual threads unmount instead of pinning their carrier.
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private final AtomicBoolean ticking = new AtomicBoolean();
+    private final Map<Long, Schedule> schedules = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final long[] warningLeads;
+    private final Counter transitions;
+
+    public AuctionLifecycleScheduler(AuctionRepository auctionRepository, AuctionBroadcaster auctionBroadcaster,
+            BidEngine bidEngine, ApplicationEventPublisher events, MeterRegistry registry,
+            @Value("${auction.lifecycle.tick-ms:100}") long tickMs,
+            @Value("${auction.lifecycle.batch-size:500}") int batchSize,
+            @Value("${auction.ending-soon.leads-ms:600000,60000}") long[] warningLeads) {
+        this.auctionRepository = auctionRepository;
+        this.auctionBroadcaster = auctionBroadcaster;
+        this.bidEngine = bidEngine;
+        this.events = events;
+        this.wheel = new TimingWheel<>(tickMs, 512, System.currentTimeMillis());
+        this.batchSize = batchSize;
+        this.warningLeads = warningLeads;
+        this.transitions = Counter.builder("auction.lifecycle.transitions").register(registry);
+        Gauge.builder("auction.lifecycle.tracked", schedules, Map::size).register(registry);
+        Gauge.builder("auction.lifecycle.pending.deadlines", this, AuctionLifecycleScheduler::pendingDeadlines)
+                .register(registry);
+    }
+
+    @PostConstruct
+    void listenForExtensions() {
+        bidEngine.onExtension(this::extend);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPending() {
+        for (AuctionScheduleView a : auctionRepository.findLifecycleCandidates()) {
+            track(a.getId(), a.getStartTime(), a.getEndTime(), a.getStatus());
+        }
+    }
+
+    /** (Re)registers the deadlines of an auction after it was created or edited. */
+    public void track(Auction auction) {
+        if (!auction.isEnabled() || "ENDED".equals(auction.getStatus())) {
+            untrack(auction.getId());
+            return;
+        }
+        track(auction.getId(), auction.getStartTime(), auction.getEndTime(), auction.getStatus());
+    }
+
+    /**
+     * Moves the end deadline of an auction after an auto-extending bid. The old END may just have fired and
+     * removed the schedule; the bid proves the auction is live, so it is tracked again.
+     */
+    public void extend(long auctionId, LocalDateTime endTime) {
+        long endAt = toMillis(endTime);
+        schedules.compute(auctionId, (id, s) -> new Schedule(s == null ? NONE : s.startAt(), endAt));
+        wheelLock.lock();
+        try {
+            scheduleEnd(auctionId, endAt);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    public void untrack(long auctionId) {
+        schedules.remove(auctionId);
+    }
+
+    @Scheduled(fixedRateString = "${auction.lifecycle.tick-ms:100}")
+    void tick() {
+        // The virtual-thread scheduler starts every fixed-rate run on a fresh thread, so runs could overlap.
+        if (!ticking.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            advance();
+        } finally {
+            ticking.set(false);
+        }
+    }
+
+    private void advance() {
+        List<Deadline> fired = new ArrayList<>();
+        wheelLock.lock();
+        try {
+            wheel.advance(System.currentTimeMillis(), fired::add);
+        } finally {
+            wheelLock.unlock();
+        }
+        if (fired.isEmpty()) {
+            return;
+        }
+        List<Long> started = new ArrayList<>();
+        List<Long> ended = new ArrayList<>();
+        Map<Long, List<Long>> warned = new HashMap<>();
+        for (Deadline d : fired) {
+            Schedule s = schedules.get(d.auctionId());
+            if (s == null) {
+                continue;
+            }
+            if (d.phase() == Phase.START && s.startAt() == d.at()
+                    && schedules.replace(d.auctionId(), s, new Schedule(NONE, s.endAt()))) {
+                started.add(d.auctionId());
+            } else if (d.phase() == Phase.END && s.endAt() == d.at() && schedules.remove(d.auctionId(), s)) {
+                ended.add(d.auctionId());
+            } else if (d.phase() == Phase.WARN && s.endAt() == d.at() && s.startAt() == NONE) {
+                warned.computeIfAbsent(d.lead(), k -> new ArrayList<>()).add(d.auctionId());
+            }
+        }
+        apply("LIVE", started);
+        // Confirmed auctions are past their end on the lane too; one it declines was extended and is tracked again.
+        apply("ENDED", ended.isEmpty() ? ended : bidEngine.confirmEnded(ended));
+        warned.forEach((lead, ids) -> events.publishEvent(new AuctionEndingSoonEvent(lead, List.copyOf(ids))));
+    }
+
+    private void track(long auctionId, LocalDateTime start, LocalDateTime end, String status) {
+        long startAt = start == null || "LIVE".equals(status) ? NONE : toMillis(start);
+        long endAt = end == null ? NONE : toMillis(end);
+        schedules.put(auctionId, new Schedule(startAt, endAt));
+        wheelLock.lock();
+        try {
+            if (startAt != NONE) {
+                wheel.schedule(startAt, new Deadline(auctionId, Phase.START, startAt, 0));
+            }
+            if (endAt != NONE) {
+                scheduleEnd(auctionId, endAt);
+            }
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    // Callers hold wheelLock.
+    private void scheduleEnd(long auctionId, long endAt) {
+        wheel.schedule(endAt, new Deadline(auctionId, Phase.END, endAt, 0));
+        long now = System.currentTimeMillis();
+        for (long lead : warningLeads) {
+            if (endAt - lead > now) {
+                wheel.schedule(endAt - lead, new Deadline(auctionId, Phase.WARN, endAt, lead));
+            }
+        }
+    }
+
+    private void apply(String status, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            auctionRepository.updateStatus(ids.subList(i, Math.min(ids.size(), i + batchSize)), status);
+        }
+        for (Long id : ids) {
+            Map<String, Object> update = new HashMap<>();
+            update.put("auctionId", id);
+            update.put("status", status);
+            auctionBroadcaster.publish(id, update);
+        }
+        transitions.increment(ids.size());
+        events.publishEvent(new AuctionLifecycleEvent(status, List.copyOf(ids)));
+    }
+
+    private int pendingDeadlines() {
+        wheelLock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,508 @@
+package com.eauction.service;
+
+import com.eauction.dto.AuctionSearchResult;
+import com.eauction.dto.AuctionView;
+import com.eauction.dto.UserRef;
+import com.eauction.model.Auction;
+import com.eauction.repository.AuctionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process search over all auctions backing {@code GET /api/auctions/search}.
+ *
+ * <p>Every auction gets a dense ordinal. Product name and description are
+ * tokenized into an inverted index of sorted ordinal lists; a query token
+ * matches every indexed term it is a prefix of. Category, condition, status
+ * and price are kept as columns indexed by ordinal, so filters and facet
+ * counts are one pass over the text matches (or over all ordinals when there
+ * is no text) without touching the database.
+ *
+ * <p>The index is loaded at startup, kept current by the controllers, the bid
+ * path (batched every {@code search.bid-apply-ms}) and lifecycle events, and
+ * reloaded every {@code search.rebuild-ms} to pick up changes made on other
+ * nodes. Hits are returned newest first; since ordinals are handed out in id
+ * order, that is descending ordinal order.
+ */
+@Service
+public class AuctionSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(AuctionSearchIndex.class);
+    private static final Pattern TOKEN = Pattern.compile("[\\p{L}\\p{N}]+");
+    private static final int MAX_TOKEN_LENGTH = 40;
+    private static final int LOAD_CHUNK = 1000;
+
+    public record Query(String text, String category, String condition, String status, Double minPrice,
+            Double maxPrice, Long beforeId, int limit) {
+    }
+
+    private final AuctionRepository auctionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final double[] priceBuckets;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Timer queryTime;
+    private final Map<Long, PendingBid> pendingBids = new ConcurrentHashMap<>();
+
+    private record PendingBid(double amount, int bidCount, LocalDateTime endTime, UserRef bidder) {
+    }
+
+    // Guarded by lock. While a rebuild loads, the ids changed meanwhile are collected in touched.
+    private Docs docs = new Docs();
+    private Set<Long> touched;
+
+    public AuctionSearchIndex(AuctionRepository auctionRepository, TransactionTemplate transactionTemplate,
+            MeterRegistry registry,
+            @Value("${search.price-buckets:0,50,100,250,500,1000,5000}") double[] priceBuckets) {
+        this.auctionRepository = auctionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.priceBuckets = priceBuckets.clone();
+        Arrays.sort(this.priceBuckets);
+        this.queryTime = Timer.builder("auction.search.query").publishPercentileHistogram().register(registry);
+        Gauge.builder("auction.search.documents", this, i -> i.read(d -> d.live)).register(registry);
+        Gauge.builder("auction.search.terms", this, i -> i.read(d -> d.terms.size())).register(registry);
+    }
+
+    /** Indexes an auction after it was created or edited, or re-indexes it after a status change. */
+    public void refresh(Auction auction) {
+        AuctionView view = viewOf(auction, LocalDateTime.now());
+        write(view.id(), d -> d.put(view));
+    }
+
+    /**
+     * Only records the bid; {@link #applyBids} folds pending bids in under one
+     * write lock, so the bid path never waits for a running search.
+     */
+    public void onBid(long auctionId, double amount, int bidCount, LocalDateTime endTime, UserRef bidder) {
+        pendingBids.merge(auctionId, new PendingBid(amount, bidCount, endTime, bidder),
+                (current, next) -> next.bidCount() > current.bidCount() ? next : current);
+    }
+
+    @Scheduled(fixedDelayString = "${search.bid-apply-ms:250}")
+    void applyBids() {
+        if (pendingBids.isEmpty()) {
+            return;
+        }
+        Map<Long, PendingBid> batch = new HashMap<>();
+        for (Long id : pendingBids.keySet()) {
+            PendingBid b = pendingBids.remove(id);
+            if (b != null) {
+                batch.put(id, b);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            batch.forEach((id, b) -> {
+                // Bids arrive from request threads and may be out of order; an older one never wins.
+                docs.update(id, v -> v.bidCount() != null && b.bidCount() <= v.bidCount() ? v
+                        : v.withBid(b.amount(), b.bidCount(), b.endTime(), b.bidder()));
+                if (touched != null) {
+                    touched.add(id);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onLifecycle(AuctionLifecycleEvent event) {
+        for (Long id : event.auctionIds()) {
+            write(id, d -> d.update(id, v -> v.withStatus(event.status())));
+        }
+    }
+
+    public AuctionSearchResult search(Query q) {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            return docs.search(q, tokenize(q.text()), priceBuckets);
+        } finally {
+            lock.readLock().unlock();
+            queryTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.rebuild-ms:3600000}",
+            fixedDelayString = "${search.rebuild-ms:3600000}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        write(null, d -> touched = new HashSet<>());
+        Docs fresh = new Docs();
+        boolean loaded = false;
+        try {
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                List<AuctionView> chunk = transactionTemplate.execute(tx -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    List<AuctionView> views = new ArrayList<>();
+                    for (Auction a : auctionRepository.findChunkAfter(from, PageRequest.of(0, LOAD_CHUNK))) {
+                        views.add(viewOf(a, now));
+                    }
+                    return views;
+                });
+                if (chunk == null || chunk.isEmpty()) {
+                    break;
+                }
+                chunk.forEach(fresh::put);
+                afterId = chunk.get(chunk.size() - 1).id();
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (loaded) {
+                    // Local changes made while loading are newer than what the load may have read.
+                    for (Long id : touched) {
+                        AuctionView current = docs.view(id);
+                        if (current != null) {
+                            fresh.put(current);
+                        }
+                    }
+                    docs = fresh;
+                }
+                touched = null;
+            } finally {
+                lock.writeLock().unlock();
+                rebuilding.set(false);
+            }
+        }
+        log.info("Search index loaded {} auctions, {} terms in {} ms", fresh.live, fresh.terms.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void write(Long id, Consumer<Docs> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(docs);
+            if (touched != null && id != null) {
+                touched.add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int read(ToIntFunction<Docs> f) {
+        lock.readLock().lock();
+        try {
+            return f.applyAsInt(docs);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // A closed auction (declared winner) stays ENDED even though it is disabled and its end time was moved.
+    private static AuctionView viewOf(Auction a, LocalDateTime now) {
+        return AuctionView.from(a).withStatus("ENDED".equals(a.getStatus()) ? "ENDED" : a.statusAt(now));
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        Matcher m = TOKEN.matcher(text.toLowerCase(Locale.ROOT));
+        while (m.find()) {
+            String t = m.group();
+            tokens.add(t.length() > MAX_TOKEN_LENGTH ? t.substring(0, MAX_TOKEN_LENGTH) : t);
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    /** Sorted, growable list of ordinals. */
+    private static final class Postings {
+        int[] ords = new int[4];
+        int size;
+
+        void add(int ord) {
+            if (size > 0 && ords[size - 1] >= ord) {
+                int at = Arrays.binarySearch(ords, 0, size, ord);
+                if (at >= 0) {
+                    return;
+                }
+                insert(-at - 1, ord);
+                return;
+            }
+            insert(size, ord);
+        }
+
+        private void insert(int at, int ord) {
+            if (size == ords.length) {
+                ords = Arrays.copyOf(ords, size * 2);
+            }
+            System.arraycopy(ords, at, ords, at + 1, size - at);
+            ords[at] = ord;
+            size++;
+        }
+
+        void remove(int ord) {
+            int at = Arrays.binarySearch(ords, 0, size, ord);
+            if (at >= 0) {
+                System.arraycopy(ords, at + 1, ords, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    /** Case-insensitive value to code; 0 stands for "no value". */
+    private static final class Dictionary {
+        final Map<String, Integer> codes = new HashMap<>();
+        final List<String> values = new ArrayList<>(List.of(""));
+
+        int code(String value) {
+            if (value == null || value.isBlank()) {
+                return 0;
+            }
+            return codes.computeIfAbsent(value.trim().toLowerCase(Locale.ROOT), k -> {
+                values.add(value.trim());
+                return values.size() - 1;
+            });
+        }
+
+        /** -1 when no filter is given, MIN_VALUE when the value has never been seen. */
+        int filter(String value) {
+            if (value == null || value.isBlank()) {
+                return -1;
+            }
+            return codes.getOrDefault(value.trim().toLowerCase(Locale.ROOT), Integer.MIN_VALUE);
+        }
+    }
+
+    private static final class Docs {
+        final Map<Long, Integer> ordinals = new HashMap<>();
+        final TreeMap<String, Postings> terms = new TreeMap<>();
+        final Dictionary categories = new Dictionary();
+        final Dictionary conditions = new Dictionary();
+        final Dictionary statuses = new Dictionary();
+        AuctionView[] views = new AuctionView[1024];
+        String[][] tokens = new String[1024][];
+        int[] category = new int[1024];
+        int[] condition = new int[1024];
+        int[] status = new int[1024];
+        double[] price = new double[1024];
+        int size;
+        int live;
+
+        AuctionView view(long id) {
+            Integer ord = ordinals.get(id);
+            return ord == null ? null : views[ord];
+        }
+
+        void put(AuctionView v) {
+            Integer ord = ordinals.get(v.id());
+            if (ord == null) {
+                ord = size++;
+                if (ord == views.length) {
+                    grow();
+                }
+                ordinals.put(v.id(), ord);
+                live++;
+            }
+            String[] before = tokens[ord];
+            String[] after = tokenize(v.productName() + " " + (v.description() == null ? "" : v.description()));
+            if (before != null) {
+                for (String t : before) {
+                    Postings p = terms.get(t);
+                    p.remove(ord);
+                    if (p.size == 0) {
+                        terms.remove(t);
+                    }
+                }
+            }
+            for (String t : after) {
+                terms.computeIfAbsent(t, k -> new Postings()).add(ord);
+            }
+            tokens[ord] = after;
+            category[ord] = categories.code(v.category());
+            condition[ord] = conditions.code(v.condition());
+            setView(ord, v);
+        }
+
+        void update(long id, UnaryOperator<AuctionView> change) {
+            Integer ord = ordinals.get(id);
+            if (ord != null) {
+                setView(ord, change.apply(views[ord]));
+            }
+        }
+
+        private void setView(int ord, AuctionView v) {
+            views[ord] = v;
+            status[ord] = statuses.code(v.status());
+            price[ord] = v.currentBid() != null ? v.currentBid() : v.startingPrice();
+        }
+
+        private void grow() {
+            int n = views.length * 2;
+            views = Arrays.copyOf(views, n);
+            tokens = Arrays.copyOf(tokens, n);
+            category = Arrays.copyOf(category, n);
+            condition = Arrays.copyOf(condition, n);
+            status = Arrays.copyOf(status, n);
+            price = Arrays.copyOf(price, n);
+        }
+
+        AuctionSearchResult search(Query q, String[] text, double[] buckets) {
+            long[] match = text.length == 0 ? null : match(text);
+            int cat = categories.filter(q.category());
+            int cond = conditions.filter(q.condition());
+            int st = statuses.filter(q.status());
+            double min = q.minPrice() != null ? q.minPrice() : Double.NEGATIVE_INFINITY;
+            double max = q.maxPrice() != null ? q.maxPrice() : Double.POSITIVE_INFINITY;
+            long before = q.beforeId() != null ? q.beforeId() : Long.MAX_VALUE;
+
+            int[] catCounts = new int[categories.values.size()];
+            int[] condCounts = new int[conditions.values.size()];
+            int[] statusCounts = new int[statuses.values.size()];
+            int[] priceCounts = new int[buckets.length + 1];
+            int total = 0;
+            List<AuctionView> items = new ArrayList<>(Math.min(q.limit() + 1, 256));
+
+            int words = match == null ? (size + 63) >>> 6 : match.length;
+            for (int w = words - 1; w >= 0; w--) {
+                long word = match == null ? -1L : match[w];
+                while (word != 0) {
+                    int bit = 63 - Long.numberOfLeadingZeros(word);
+                    word &= ~(1L << bit);
+                    int o = (w << 6) + bit;
+                    if (o >= size || views[o] == null) {
+                        continue;
+                    }
+                    boolean c = cat == -1 || category[o] == cat;
+                    boolean d = cond == -1 || condition[o] == cond;
+                    boolean s = st == -1 || status[o] == st;
+                    boolean p = price[o] >= min && price[o] <= max;
+                    int misses = (c ? 0 : 1) + (d ? 0 : 1) + (s ? 0 : 1) + (p ? 0 : 1);
+                    if (misses > 1) {
+                        continue;
+                    }
+                    // A facet counts a hit that passes every filter except, possibly, its own.
+                    if (misses == 0 || !c) {
+                        catCounts[category[o]]++;
+                    }
+                    if (misses == 0 || !d) {
+                        condCounts[condition[o]]++;
+                    }
+                    if (misses == 0 || !s) {
+                        statusCounts[status[o]]++;
+                    }
+                    if (misses == 0 || !p) {
+                        priceCounts[bucket(buckets, price[o])]++;
+                    }
+                    if (misses == 0) {
+                        total++;
+                        if (items.size() <= q.limit() && views[o].id() < before) {
+                            items.add(views[o]);
+                        }
+                    }
+                }
+            }
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            facets.put("category", counts(categories, catCounts));
+            facets.put("condition", counts(conditions, condCounts));
+            facets.put("status", counts(statuses, statusCounts));
+            Map<String, Integer> priceFacet = new LinkedHashMap<>();
+            for (int i = 0; i < priceCounts.length; i++) {
+                if (priceCounts[i] > 0) {
+                    priceFacet.put(bucketLabel(buckets, i), priceCounts[i]);
+                }
+            }
+            facets.put("price", priceFacet);
+            return new AuctionSearchResult(total, facets, items);
+        }
+
+        /** Ordinals matching every token, as a bitset; a token matches all terms it is a prefix of. */
+        private long[] match(String[] text) {
+            long[] result = null;
+            for (String token : text) {
+                long[] bits = new long[(size + 63) >>> 6];
+                SortedMap<String, Postings> hits = terms.subMap(token, token + Character.MAX_VALUE);
+                for (Postings p : hits.values()) {
+                    for (int i = 0; i < p.size; i++) {
+                        int o = p.ords[i];
+                        bits[o >>> 6] |= 1L << o;
+                    }
+                }
+                if (result == null) {
+                    result = bits;
+                } else {
+                    for (int w = 0; w < result.length; w++) {
+                        result[w] &= bits[w];
+                    }
+                }
+            }
+            return result;
+        }
+
+        private static Map<String, Integer> counts(Dictionary dict, int[] counts) {
+            List<Integer> codes = new ArrayList<>();
+            for (int i = 1; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    codes.add(i);
+                }
+            }
+            codes.sort((a, b) -> Integer.compare(counts[b], counts[a]));
+            Map<String, Integer> out = new LinkedHashMap<>();
+            for (int code : codes) {
+                out.put(dict.values.get(code), counts[code]);
+            }
+            return out;
+        }
+    }
+
+    private static int bucket(double[] buckets, double price) {
+        int at = Arrays.binarySearch(buckets, price);
+        return at >= 0 ? at + 1 : -at - 1;
+    }
+
+    private static String bucketLabel(double[] buckets, int i) {
+        if (i == 0) {
+            return "<" + format(buckets[0]);
+        }
+        if (i == buckets.length) {
+            return format(buckets[i - 1]) + "+";
+        }
+        return format(buckets[i - 1]) + "-" + format(buckets[i]);
+    }
+
+    private static String format(double d) {
+        return d == Math.rint(d) ? Long.toString((long) d) : Double.toString(d);
+    }
+}
@@ -0,0 +1,190 @@
+package com.eauction.service;
+
+import com.eauction.dto.AuctionSettlementView;
+import com.eauction.repository.AuctionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settles auctions once they have ended: closes them, notifies the winner
+ * and the seller and broadcasts the final state on {@code /topic/auction/{id}}.
+ *
+ * <p>Auctions ended by the lifecycle scheduler are queued and settled
+ * {@code grace-ms} after their end, which leaves time for a bid decided just
+ * before the end to be persisted. A sweep every {@code sweep-ms}, and once at
+ * startup, picks up anything else past its end time, such as auctions that
+ * ended while the node was down.
+ *
+ * <p>A batch of up to {@code batch-size} auctions is settled in one
+ * transaction: the unsettled rows are locked, marked settled with one update,
+ * and the notification rows are inserted as a JDBC batch. Marking and
+ * notifying commit together, so a restart or a second node never settles an
+ * auction twice. Pushes and broadcasts follow the commit.
+ */
+@Service
+public class AuctionSettlement {
+    private static final Logger log = LoggerFactory.getLogger(AuctionSettlement.class);
+
+    private record Due(long auctionId, long at) {
+    }
+
+    private final AuctionRepository auctionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final NotificationOutbox outbox;
+    private final AuctionBroadcaster auctionBroadcaster;
+    private final BidEngine bidEngine;
+    private final LiveAuctionIndex liveAuctionIndex;
+    private final UnreadCounters unreadCounters;
+    private final int batchSize;
+    private final long graceMs;
+    // Appended in end order with a fixed grace, so it is also ordered by due time.
+    private final Queue<Due> pending = new ConcurrentLinkedQueue<>();
+
+    private final Counter settled;
+    private final Timer batchTime;
+    private final Timer lag;
+
+    public AuctionSettlement(AuctionRepository auctionRepository, TransactionTemplate transactionTemplate,
+            NotificationOutbox outbox, AuctionBroadcaster auctionBroadcaster, BidEngine bidEngine,
+            LiveAuctionIndex liveAuctionIndex, UnreadCounters unreadCounters, MeterRegistry registry,
+            @Value("${auction.settlement.batch-size:500}") int batchSize,
+            @Value("${auction.settlement.grace-ms:2000}") long graceMs) {
+        this.auctionRepository = auctionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.outbox = outbox;
+        this.auctionBroadcaster = auctionBroadcaster;
+        this.bidEngine = bidEngine;
+        this.liveAuctionIndex = liveAuctionIndex;
+        this.unreadCounters = unreadCounters;
+        this.batchSize = batchSize;
+        this.graceMs = graceMs;
+        this.settled = Counter.builder("auction.settlement.settled").register(registry);
+        this.batchTime = Timer.builder("auction.settlement.batch").register(registry);
+        this.lag = Timer.builder("auction.settlement.lag").description("Time from queueing to settlement")
+                .publishPercentileHistogram().register(registry);
+        Gauge.builder("auction.settlement.pending", pending, Queue::size).register(registry);
+    }
+
+    @EventListener
+    public void onLifecycle(AuctionLifecycleEvent event) {
+        if ("ENDED".equals(event.status())) {
+            long at = System.currentTimeMillis() + graceMs;
+            for (Long id : event.auctionIds()) {
+                pending.add(new Due(id, at));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auction.settlement.interval-ms:1000}")
+    void drain() {
+        long now = System.currentTimeMillis();
+        List<Long> batch = new ArrayList<>(batchSize);
+        for (Due d; (d = pending.peek()) != null && d.at() <= now;) {
+            pending.poll();
+            batch.add(d.auctionId());
+            lag.record(System.currentTimeMillis() - d.at() + graceMs, TimeUnit.MILLISECONDS);
+            if (batch.size() == batchSize) {
+                settle(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            settle(batch);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${auction.settlement.sweep-ms:60000}",
+            fixedDelayString = "${auction.settlement.sweep-ms:60000}")
+    public void sweep() {
+        LocalDateTime endedBefore = LocalDateTime.now().minus(graceMs, ChronoUnit.MILLIS);
+        long afterId = 0;
+        int total = 0;
+        while (true) {
+            List<Long> ids = auctionRepository.findUnsettledIds(endedBefore, afterId, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            total += settle(ids);
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (total > 0) {
+            log.info("Settlement sweep settled {} ended auctions", total);
+        }
+    }
+
+    /** Settles whichever of {@code ids} have ended and are not settled yet; returns how many that was. */
+    int settle(List<Long> ids) {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        List<NotificationOutbox.NotificationEvent> events = new ArrayList<>();
+        long stamp = unreadCounters.stamp();
+        List<AuctionSettlementView> rows = transactionTemplate.execute(tx -> {
+            List<AuctionSettlementView> locked = auctionRepository.lockUnsettled(ids,
+                    now.minus(graceMs, ChronoUnit.MILLIS));
+            if (locked.isEmpty()) {
+                return locked;
+            }
+            auctionRepository.markSettled(locked.stream().map(AuctionSettlementView::getId).toList(), now);
+            for (AuctionSettlementView a : locked) {
+                notifications(a, now, events);
+            }
+            outbox.persist(events);
+            return locked;
+        });
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        outbox.delivered(events, stamp);
+        for (AuctionSettlementView a : rows) {
+            bidEngine.evict(a.getId());
+            liveAuctionIndex.remove(a.getId());
+            Map<String, Object> update = new HashMap<>();
+            update.put("auctionId", a.getId());
+            update.put("status", "ENDED");
+            update.put("currentBid", a.getPrice());
+            update.put("bidCount", a.getBidCount());
+            update.put("highestBidderId", a.getWinnerId());
+            update.put("settled", true);
+            auctionBroadcaster.publish(a.getId(), update);
+        }
+        settled.increment(rows.size());
+        batchTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return rows.size();
+    }
+
+    private static void notifications(AuctionSettlementView a, LocalDateTime now,
+            List<NotificationOutbox.NotificationEvent> events) {
+        if (a.getWinnerId() != null) {
+            events.add(new NotificationOutbox.NotificationEvent(a.getWinnerId(), a.getId(),
+                    "You won " + a.getProductName() + " for $" + a.getPrice(), "success", now));
+        }
+        if (a.getSellerId() != null) {
+            String message = a.getWinnerId() != null
+                    ? a.getProductName() + " sold for $" + a.getPrice()
+                    : a.getProductName() + " ended with no bids";
+            events.add(new NotificationOutbox.NotificationEvent(a.getSellerId(), a.getId(), message, "info", now));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.eauction.service;
+
+import com.eauction.dto.UserRef;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outcome of one bid request. An accepted request may produce several bids
+ * when proxy maximums answer it: {@code bids} lists them in order, and
+ * {@code amount}, {@code bidCount} and {@code highestBidderId} describe the
+ * auction after the last one. {@code exceededIds} are the proxy bidders whose
+ * maximum the request used up.
+ */
+public record BidDecision(
+        Outcome outcome,
+        long auctionId,
+        double amount,
+        double minIncrement,
+        int bidCount,
+        LocalDateTime bidTime,
+        LocalDateTime endTime,
+        boolean extended,
+        Long previousHighestBidderId,
+        Long highestBidderId,
+        Long sellerId,
+        String productName,
+        List<PlacedBid> bids,
+        List<Long> exceededIds) {
+
+    public enum Outcome {
+        ACCEPTED,
+        AUCTION_ENDED,
+        BELOW_INCREMENT,
+        NOT_FOUND,
+        // The leader raised their own maximum; nothing was bid.
+        MAXIMUM_RAISED,
+        // Closed at the Buy Now price; the single bid is the purchase.
+        BOUGHT,
+        // No Buy Now price, or bidding has already reached it.
+        BUY_NOW_UNAVAILABLE
+    }
+
+    public record PlacedBid(UserRef bidder, double amount, boolean automatic) {
+    }
+
+    public boolean accepted() {
+        return outcome == Outcome.ACCEPTED;
+    }
+}
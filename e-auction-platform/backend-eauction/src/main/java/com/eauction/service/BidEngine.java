@@ -0,0 +1,362 @@
+package com.eauction.service;
+
+import com.eauction.dto.ProxyBidView;
+import com.eauction.dto.UserRef;
+import com.eauction.model.Auction;
+import com.eauction.repository.AuctionRepository;
+import com.eauction.repository.ProxyBidRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Decides bids against in-memory auction state. Every auction is pinned to one
+ * single-threaded lane (striped by id), so bids on the same auction are
+ * accepted in strict arrival order while different auctions proceed in
+ * parallel. The database is only read when an auction is first seen by its
+ * lane; persisting an accepted bid is left to the caller.
+ *
+ * <p>Proxy maximums are part of the lane's state. A bid that some maximum can
+ * beat is answered within the same decision: the strongest maximum leads one
+ * increment above the runner-up's maximum, so any number of competing proxies
+ * costs one pass instead of a request per increment.
+ */
+@Service
+public class BidEngine {
+
+    private final AuctionRepository auctionRepo;
+    private final ProxyBidRepository proxyBidRepo;
+    private final ExecutorService[] lanes;
+    private final Map<Long, LiveAuctionState> books = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile BiConsumer<Long, LocalDateTime> extensionListener = (id, end) -> { };
+
+    public BidEngine(AuctionRepository auctionRepo, ProxyBidRepository proxyBidRepo, MeterRegistry registry,
+            @Value("${bid.engine.lanes:0}") int laneCount) {
+        this.auctionRepo = auctionRepo;
+        this.proxyBidRepo = proxyBidRepo;
+        int n = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new ExecutorService[n];
+        for (int i = 0; i < n; i++) {
+            String name = "bid-lane-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        Gauge.builder("bid.engine.auctions", books, Map::size)
+                .description("Auctions with bid state cached in the engine, i.e. recently bid on")
+                .register(registry);
+    }
+
+    public BidDecision submit(long auctionId, UserRef bidder, double amount) {
+        return run(auctionId, () -> decide(auctionId, bidder, amount, null));
+    }
+
+    /**
+     * Registers or raises the bidder's hidden maximum. Unless they already
+     * lead, it also bids the minimum needed to, which the other maximums then
+     * answer like any bid.
+     */
+    public BidDecision submitMaximum(long auctionId, UserRef bidder, double maxAmount) {
+        return run(auctionId, () -> decide(auctionId, bidder, null, maxAmount));
+    }
+
+    /**
+     * Closes the auction at its Buy Now price. Decided on the auction's lane
+     * like a bid, so exactly one of any number of concurrent buyers wins and
+     * bids arriving after it are refused as if the auction had ended.
+     */
+    public BidDecision submitBuyNow(long auctionId, UserRef buyer) {
+        return run(auctionId, () -> decideBuyNow(auctionId, buyer));
+    }
+
+    /**
+     * Stops the auction taking bids, for a seller declaring the winner early.
+     * Runs on the auction's lane like Buy Now, so once it returns no further
+     * bid is accepted and the auction row can be settled.
+     */
+    public void close(long auctionId) {
+        run(auctionId, () -> {
+            LiveAuctionState state = state(auctionId);
+            if (state != null) {
+                LocalDateTime now = LocalDateTime.now();
+                state.closed = true;
+                if (state.endTime == null || state.endTime.isAfter(now)) {
+                    state.endTime = now;
+                }
+            }
+            return null;
+        });
+    }
+
+    private <T> T run(long auctionId, Callable<T> decision) {
+        inFlight.incrementAndGet();
+        try {
+            Future<T> f = laneFor(auctionId).submit(decision);
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for bid decision", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Drops the cached state of an auction so the next bid reloads it. Runs on
+     * the auction's lane, so it is ordered with respect to in-flight bids.
+     */
+    public void evict(long auctionId) {
+        laneFor(auctionId).execute(() -> books.remove(auctionId));
+    }
+
+    /**
+     * Of auctions whose end deadline has fired, returns those that really are
+     * over and drops their cached state. Checked on each auction's lane, so a
+     * last-second bid either extended it before the check, and it is left
+     * running, or is refused after it.
+     */
+    public List<Long> confirmEnded(List<Long> auctionIds) {
+        List<Future<Boolean>> checks = new ArrayList<>(auctionIds.size());
+        for (Long id : auctionIds) {
+            checks.add(laneFor(id).submit(() -> {
+                LiveAuctionState state = books.get(id);
+                if (state != null && !state.closed && state.endTime != null
+                        && state.endTime.isAfter(LocalDateTime.now())) {
+                    return false;
+                }
+                books.remove(id);
+                return true;
+            }));
+        }
+        List<Long> ended = new ArrayList<>(auctionIds.size());
+        for (int i = 0; i < checks.size(); i++) {
+            try {
+                if (checks.get(i).get()) {
+                    ended.add(auctionIds.get(i));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while confirming auction ends", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return ended;
+    }
+
+    /**
+     * Called on the auction's lane whenever a bid extends it, before the
+     * decision is handed back, so the new deadline is registered before the
+     * old one can fire.
+     */
+    public void onExtension(BiConsumer<Long, LocalDateTime> listener) {
+        this.extensionListener = listener;
+    }
+
+    /** Bids submitted and not yet decided; background jobs back off while this is non-zero. */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public int trackedAuctions() {
+        return books.size();
+    }
+
+    /** The lane's state of an auction, loaded on first use; null if there is no such auction. */
+    private LiveAuctionState state(long auctionId) {
+        LiveAuctionState state = books.get(auctionId);
+        if (state == null) {
+            Auction auction = auctionRepo.findById(auctionId).orElse(null);
+            if (auction == null) {
+                return null;
+            }
+            state = new LiveAuctionState(auction);
+            for (ProxyBidView p : proxyBidRepo.findByAuctionId(auctionId)) {
+                state.proxies.put(p.getBidderId(), new LiveAuctionState.Proxy(
+                        new UserRef(p.getBidderId(), p.getUsername()), p.getMaxAmount(), p.getPlacedAt()));
+            }
+            books.put(auctionId, state);
+        }
+        return state;
+    }
+
+    private boolean ended(LiveAuctionState state, LocalDateTime now) {
+        if (state.closed) {
+            return true;
+        }
+        if (state.endTime != null && now.isAfter(state.endTime)) {
+            books.remove(state.auctionId);
+            return true;
+        }
+        return false;
+    }
+
+    private BidDecision decideBuyNow(long auctionId, UserRef buyer) {
+        LiveAuctionState state = state(auctionId);
+        if (state == null) {
+            return notFound(auctionId, 0);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (ended(state, now)) {
+            return unchanged(BidDecision.Outcome.AUCTION_ENDED, state, 0, now);
+        }
+        if (state.buyNowPrice == null || (state.currentBid != null && state.currentBid >= state.buyNowPrice)) {
+            return unchanged(BidDecision.Outcome.BUY_NOW_UNAVAILABLE, state, 0, now);
+        }
+        Long previous = state.highestBidderId;
+        List<BidDecision.PlacedBid> bids = new ArrayList<>(1);
+        accept(state, new BidDecision.PlacedBid(buyer, state.buyNowPrice, false), bids);
+        state.closed = true;
+        state.endTime = now;
+        return new BidDecision(BidDecision.Outcome.BOUGHT, auctionId, state.currentBid, state.minIncrement,
+                state.bidCount, now, now, false, previous, state.highestBidderId, state.sellerId, state.productName,
+                bids, List.of());
+    }
+
+    private BidDecision decide(long auctionId, UserRef bidder, Double amount, Double maxAmount) {
+        double requested = amount != null ? amount : maxAmount;
+        LiveAuctionState state = state(auctionId);
+        if (state == null) {
+            return notFound(auctionId, requested);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (ended(state, now)) {
+            return unchanged(BidDecision.Outcome.AUCTION_ENDED, state, requested, now);
+        }
+        Long previous = state.highestBidderId;
+        if (maxAmount != null) {
+            if (Objects.equals(previous, bidder.id())) {
+                if (state.currentBid != null && maxAmount <= state.currentBid) {
+                    return unchanged(BidDecision.Outcome.BELOW_INCREMENT, state, maxAmount, now);
+                }
+                raiseMaximum(state, bidder, maxAmount, now);
+                return unchanged(BidDecision.Outcome.MAXIMUM_RAISED, state, maxAmount, now);
+            }
+            // A maximum opens the bidding at the asking price, never at the maximum itself.
+            amount = state.currentBid != null ? state.currentBid + state.minIncrement
+                    : state.startingPrice > 0 ? state.startingPrice : state.minIncrement;
+            if (maxAmount < amount) {
+                return unchanged(BidDecision.Outcome.BELOW_INCREMENT, state, maxAmount, now);
+            }
+            raiseMaximum(state, bidder, maxAmount, now);
+        }
+        if (state.currentBid != null && amount < state.currentBid + state.minIncrement) {
+            return unchanged(BidDecision.Outcome.BELOW_INCREMENT, state, amount, now);
+        }
+
+        List<BidDecision.PlacedBid> bids = new ArrayList<>(3);
+        accept(state, new BidDecision.PlacedBid(bidder, amount, maxAmount != null), bids);
+        List<Long> exceeded = resolve(state, bids, now);
+        boolean extended = false;
+        if (state.autoExtend && state.endTime != null) {
+            long secondsLeft = Duration.between(now, state.endTime).getSeconds();
+            if (secondsLeft > 0 && secondsLeft <= 60) {
+                state.endTime = state.endTime.plusMinutes(2);
+                extended = true;
+                extensionListener.accept(auctionId, state.endTime);
+            }
+        }
+        return new BidDecision(BidDecision.Outcome.ACCEPTED, auctionId, state.currentBid, state.minIncrement,
+                state.bidCount, now, state.endTime, extended, previous, state.highestBidderId, state.sellerId,
+                state.productName, bids, exceeded);
+    }
+
+    /**
+     * Lets the maximums answer the bid just accepted. The strongest (highest,
+     * then earliest) leads at one increment over the runner-up's maximum,
+     * capped at its own; the runner-up's maximum is recorded as its last bid.
+     * Returns the bidders whose maximum was used up.
+     */
+    private List<Long> resolve(LiveAuctionState state, List<BidDecision.PlacedBid> bids, LocalDateTime now) {
+        double price = state.currentBid;
+        Long leaderId = state.highestBidderId;
+        List<LiveAuctionState.Proxy> contenders = new ArrayList<>();
+        for (LiveAuctionState.Proxy p : state.proxies.values()) {
+            if (!p.bidder().id().equals(leaderId) && p.max() >= price + state.minIncrement) {
+                contenders.add(p);
+            }
+        }
+        if (contenders.isEmpty()) {
+            return List.of();
+        }
+        LiveAuctionState.Proxy own = state.proxies.get(leaderId);
+        contenders.add(own != null && own.max() > price ? own
+                : new LiveAuctionState.Proxy(bids.get(bids.size() - 1).bidder(), price, now));
+        contenders.sort(Comparator.comparingDouble(LiveAuctionState.Proxy::max).reversed()
+                .thenComparing(LiveAuctionState.Proxy::placedAt));
+        LiveAuctionState.Proxy winner = contenders.get(0);
+        LiveAuctionState.Proxy runnerUp = contenders.get(1);
+        double finalPrice = Math.min(winner.max(), runnerUp.max() + state.minIncrement);
+        if (runnerUp.max() > price && runnerUp.max() < finalPrice) {
+            accept(state, new BidDecision.PlacedBid(runnerUp.bidder(), runnerUp.max(), true), bids);
+        }
+        accept(state, new BidDecision.PlacedBid(winner.bidder(), finalPrice, true), bids);
+        return contenders.stream().skip(1).map(p -> p.bidder().id()).toList();
+    }
+
+    private static void accept(LiveAuctionState state, BidDecision.PlacedBid bid, List<BidDecision.PlacedBid> bids) {
+        state.currentBid = bid.amount();
+        state.bidCount++;
+        state.highestBidderId = bid.bidder().id();
+        bids.add(bid);
+    }
+
+    // A lower maximum than the one already held changes nothing.
+    private static void raiseMaximum(LiveAuctionState state, UserRef bidder, double max, LocalDateTime now) {
+        state.proxies.merge(bidder.id(), new LiveAuctionState.Proxy(bidder, max, now),
+                (current, raised) -> raised.max() > current.max() ? raised : current);
+    }
+
+    private static BidDecision notFound(long auctionId, double amount) {
+        return new BidDecision(BidDecision.Outcome.NOT_FOUND, auctionId, amount, 0, 0, null, null, false, null,
+                null, null, null, List.of(), List.of());
+    }
+
+    private BidDecision unchanged(BidDecision.Outcome outcome, LiveAuctionState state, double amount,
+            LocalDateTime now) {
+        return new BidDecision(outcome, state.auctionId, amount, state.minIncrement, state.bidCount, now,
+                state.endTime, false, state.highestBidderId, state.highestBidderId, state.sellerId,
+                state.productName, List.of(), List.of());
+    }
+
+    private ExecutorService laneFor(long auctionId) {
+        return lanes[(int) Math.floorMod(auctionId, (long) lanes.length)];
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            lane.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -1,5 +1,9 @@
 package com.eauction.service;
 
 public interface BidService {
-    String placeBid(long auctionId, double amount, String username);
+    String placeBid(long auctionId, double amount, long bidderId, String bidderUsername);
+
+    String placeMaximumBid(long auctionId, double maxAmount, long bidderId, String bidderUsername);
+
+    String buyNow(long auctionId, long buyerId, String buyerUsername);
 }
\ No newline at end of file
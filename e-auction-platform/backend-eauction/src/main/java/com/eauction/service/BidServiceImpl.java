@@ -1,24 +1,41 @@
 package com.eauction.service;
 
-import com.eauction.model.Auction;
+import com.eauction.dto.AuctionUserView;
+import com.eauction.dto.UserRef;
 import com.eauction.model.Bid;
+import com.eauction.model.ProxyBid;
 import com.eauction.model.User;
 import com.eauction.repository.AuctionRepository;
 import com.eauction.repository.BidRepository;
+import com.eauction.repository.ProxyBidRepository;
 import com.eauction.repository.UserRepository;
-import com.eauction.repository.NotificationRepository;
-import com.eauction.model.Notification;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class BidServiceImpl implements BidService {
+    private static final Logger log = LoggerFactory.getLogger(BidServiceImpl.class);
 
     @Autowired
     AuctionRepository auctionRepo;
@@ -27,112 +44,254 @@ public class BidServiceImpl implements BidService {
     @Autowired
     UserRepository userRepo;
     @Autowired
-    SimpMessagingTemplate messagingTemplate;
+    AuctionBroadcaster auctionBroadcaster;
     @Autowired
-    NotificationRepository notificationRepository;
-
-    public String placeBid(long auctionId, double amount, String username) {
-        Auction auction = auctionRepo.findById(auctionId).orElseThrow();
-        if (LocalDateTime.now().isAfter(auction.getEndTime())) {
-            User bidder = userRepo.findByUsername(username);
-            Map<String, Object> notifFail = new HashMap<>();
-            notifFail.put("message", "Bid failed – auction ended");
-            notifFail.put("type", "error");
-            messagingTemplate.convertAndSend("/user/" + bidder.getId() + "/notifications", notifFail);
-            Notification nf = new Notification();
-            nf.setUser(bidder);
-            nf.setMessage("Bid failed – auction ended");
-            nf.setType("error");
-            nf.setCreatedAt(LocalDateTime.now());
-            nf.setRead(false);
-            notificationRepository.save(nf);
-            return "Bid Failed: Auction Ended";
+    NotificationOutbox notificationOutbox;
+    @Autowired
+    BidEngine bidEngine;
+    @Autowired
+    AuctionLifecycleScheduler lifecycleScheduler;
+    @Autowired
+    LiveAuctionIndex liveAuctionIndex;
+    @Autowired
+    AuctionSearchIndex auctionSearchIndex;
+    @Autowired
+    ProxyBidRepository proxyBidRepo;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    ApplicationEventPublisher events;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private final Map<BidDecision.Outcome, Counter> outcomes = new EnumMap<>(BidDecision.Outcome.class);
+    private Timer decideTime;
+    private Timer persistTime;
+    private Timer broadcastTime;
+    private Counter automaticBids;
+
+    @PostConstruct
+    void registerMeters() {
+        for (BidDecision.Outcome o : BidDecision.Outcome.values()) {
+            outcomes.put(o, Counter.builder("bids").tag("outcome", o.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        // One timer per phase of an accepted bid; "decide" also covers rejected ones.
+        decideTime = phase("decide");
+        persistTime = phase("persist");
+        broadcastTime = phase("broadcast");
+        automaticBids = Counter.builder("bids.automatic").description("Bids placed on behalf of a maximum bid")
+                .register(meterRegistry);
+    }
+
+    private Timer phase(String name) {
+        return Timer.builder("bid.place.phase").tag("phase", name).publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public String placeBid(long auctionId, double amount, long bidderId, String bidderUsername) {
+        long start = System.nanoTime();
+        BidDecision decision = bidEngine.submit(auctionId, new UserRef(bidderId, bidderUsername), amount);
+        return apply(decision, bidderId, start);
+    }
+
+    public String placeMaximumBid(long auctionId, double maxAmount, long bidderId, String bidderUsername) {
+        long start = System.nanoTime();
+        BidDecision decision = bidEngine.submitMaximum(auctionId, new UserRef(bidderId, bidderUsername), maxAmount);
+        if (decision.outcome() == BidDecision.Outcome.ACCEPTED
+                || decision.outcome() == BidDecision.Outcome.MAXIMUM_RAISED) {
+            saveMaximum(auctionId, bidderId, maxAmount, decision.bidTime());
+        }
+        if (decision.outcome() == BidDecision.Outcome.MAXIMUM_RAISED) {
+            outcomes.get(decision.outcome()).increment();
+            return "Maximum bid raised";
+        }
+        return apply(decision, bidderId, start);
+    }
+
+    /**
+     * The lane picks one buyer; the conditional update then closes the auction
+     * in the database only if no other node got there first, and the purchase
+     * bid is written in the same transaction.
+     */
+    public String buyNow(long auctionId, long buyerId, String buyerUsername) {
+        BidDecision decision = bidEngine.submitBuyNow(auctionId, new UserRef(buyerId, buyerUsername));
+        outcomes.get(decision.outcome()).increment();
+        if (decision.outcome() == BidDecision.Outcome.NOT_FOUND) {
+            throw new NoSuchElementException("No value present");
+        }
+        if (decision.outcome() == BidDecision.Outcome.AUCTION_ENDED) {
+            return "Buy Now Failed: Auction Ended";
+        }
+        if (decision.outcome() == BidDecision.Outcome.BUY_NOW_UNAVAILABLE) {
+            return "Buy Now Failed: Not available";
+        }
+        User buyer = userRepo.getReferenceById(buyerId);
+        boolean closed = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            if (auctionRepo.applyBuyNow(auctionId, decision.bidCount(), buyer, decision.bidTime()) == 0) {
+                return false;
+            }
+            Bid bid = new Bid();
+            bid.setAmount(decision.amount());
+            bid.setBidTime(decision.bidTime());
+            bid.setAuction(auctionRepo.getReferenceById(auctionId));
+            bid.setBidder(buyer);
+            bidRepo.save(bid);
+            return true;
+        }));
+        // Either way the lane must now reload from the database, which has the final word.
+        bidEngine.evict(auctionId);
+        if (!closed) {
+            return "Buy Now Failed: Auction Ended";
         }
-        if (auction.getCurrentBid() != null) {
-            double minInc = auction.getMinIncrement() != null ? auction.getMinIncrement() : 1.0;
-            if (amount < auction.getCurrentBid() + minInc) {
-                User bidder = userRepo.findByUsername(username);
-                Map<String, Object> notifFail2 = new HashMap<>();
-                notifFail2.put("message", "Bid failed – minimum increment is $" + minInc);
-                notifFail2.put("type", "error");
-                messagingTemplate.convertAndSend("/user/" + bidder.getId() + "/notifications", notifFail2);
-                Notification nf2 = new Notification();
-                nf2.setUser(bidder);
-                nf2.setMessage("Bid failed – minimum increment is $" + minInc);
-                nf2.setType("error");
-                nf2.setCreatedAt(LocalDateTime.now());
-                nf2.setRead(false);
-                notificationRepository.save(nf2);
-                return "Bid Failed: Higher bid exists";
+        lifecycleScheduler.untrack(auctionId);
+        auctionSearchIndex.onBid(auctionId, decision.amount(), decision.bidCount(), decision.endTime(),
+                new UserRef(buyerId, buyerUsername));
+        events.publishEvent(new AuctionLifecycleEvent("ENDED", List.of(auctionId)));
+
+        Map<String, Object> update = new HashMap<>();
+        update.put("auctionId", auctionId);
+        update.put("currentBid", decision.amount());
+        update.put("bidCount", decision.bidCount());
+        update.put("bidTime", decision.bidTime());
+        update.put("endTime", decision.endTime());
+        update.put("status", "ENDED");
+        update.put("highestBidderId", buyerId);
+        update.put("buyNow", true);
+        auctionBroadcaster.publish(auctionId, update);
+
+        notificationOutbox.enqueue(buyerId, auctionId, "You bought " + decision.productName() + " for $"
+                + decision.amount(), "success");
+        for (AuctionUserView b : bidRepo.findBidderIdsByAuctionIdIn(List.of(auctionId))) {
+            if (!b.getUserId().equals(buyerId)) {
+                notificationOutbox.enqueue(b.getUserId(), auctionId, decision.productName()
+                        + " was bought with Buy Now", "warning");
             }
         }
+        if (decision.sellerId() != null) {
+            notificationOutbox.enqueue(decision.sellerId(), auctionId, decision.productName()
+                    + " was sold with Buy Now for $" + decision.amount(), "info");
+        }
+        return "Buy Now Success";
+    }
+
+    private void saveMaximum(long auctionId, long bidderId, double maxAmount, LocalDateTime placedAt) {
+        if (proxyBidRepo.raise(auctionId, bidderId, maxAmount, placedAt) > 0) {
+            return;
+        }
+        ProxyBid proxy = new ProxyBid();
+        proxy.setAuction(auctionRepo.getReferenceById(auctionId));
+        proxy.setBidder(userRepo.getReferenceById(bidderId));
+        proxy.setMaxAmount(maxAmount);
+        proxy.setPlacedAt(placedAt);
+        try {
+            proxyBidRepo.save(proxy);
+        } catch (DataIntegrityViolationException e) {
+            // The row exists with an equal or higher maximum.
+        }
+    }
+
+    /** Persists, indexes, broadcasts and notifies one decision, however many bids it holds. */
+    private String apply(BidDecision decision, long bidderId, long start) {
+        long auctionId = decision.auctionId();
+        long decided = System.nanoTime();
+        decideTime.record(decided - start, TimeUnit.NANOSECONDS);
+        outcomes.get(decision.outcome()).increment();
+        if (decision.outcome() == BidDecision.Outcome.NOT_FOUND) {
+            throw new NoSuchElementException("No value present");
+        }
+        if (decision.outcome() == BidDecision.Outcome.AUCTION_ENDED) {
+            notificationOutbox.enqueue(bidderId, auctionId, "Bid failed – auction ended", "error");
+            return "Bid Failed: Auction Ended";
+        }
+        if (decision.outcome() == BidDecision.Outcome.BELOW_INCREMENT) {
+            double minInc = decision.minIncrement();
+            notificationOutbox.enqueue(bidderId, auctionId, "Bid failed – minimum increment is $" + minInc, "error");
+            return "Bid Failed: Higher bid exists";
+        }
 
-        Bid bid = new Bid();
-        bid.setAmount(amount);
-        bid.setBidTime(LocalDateTime.now());
-        bid.setAuction(auction);
-        User bidder = userRepo.findByUsername(username);
-        bid.setBidder(bidder);
-
-        bidRepo.save(bid);
-        User prevHighest = auction.getHighestBidder();
-        auction.setCurrentBid(amount);
-        auction.setBidCount(auction.getBidCount() == null ? 1 : auction.getBidCount() + 1);
-        auction.setHighestBidder(bidder);
-        if (Boolean.TRUE.equals(auction.getAutoExtend())) {
-            long secondsLeft = Duration.between(LocalDateTime.now(), auction.getEndTime()).getSeconds();
-            if (secondsLeft > 0 && secondsLeft <= 60) {
-                auction.setEndTime(auction.getEndTime().plusMinutes(2));
+        List<Bid> bids = new ArrayList<>(decision.bids().size());
+        for (BidDecision.PlacedBid placed : decision.bids()) {
+            Bid bid = new Bid();
+            bid.setAmount(placed.amount());
+            bid.setBidTime(decision.bidTime());
+            bid.setAuction(auctionRepo.getReferenceById(auctionId));
+            // The decision only needs the bidder's id; a reference avoids loading the row.
+            bid.setBidder(userRepo.getReferenceById(placed.bidder().id()));
+            bids.add(bid);
+            if (placed.automatic()) {
+                automaticBids.increment();
             }
         }
-        auctionRepo.save(auction);
+        Bid last = bids.get(bids.size() - 1);
+        boolean stored;
+        try {
+            // Decisions may commit out of lane order. The bid rows are history and always go in; the auction row
+            // only moves forward, so 0 rows there means a later decision is already stored, unless the auction
+            // was settled while this one was in flight, in which case the settled result stands.
+            stored = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+                if (auctionRepo.applyAcceptedBid(auctionId, decision.amount(), decision.bidCount(),
+                        last.getBidder(), decision.endTime()) == 0
+                        && auctionRepo.existsByIdAndSettledAtIsNotNull(auctionId)) {
+                    return false;
+                }
+                bidRepo.saveAll(bids);
+                return true;
+            }));
+        } catch (RuntimeException e) {
+            log.warn("Failed to persist accepted bid on auction {}", auctionId, e);
+            // The lane already moved on to this decision; reload it from what the database actually holds.
+            bidEngine.evict(auctionId);
+            return "Bid Failed: Not saved, please retry";
+        }
+        if (!stored) {
+            bidEngine.evict(auctionId);
+            notificationOutbox.enqueue(bidderId, auctionId, "Bid failed – auction ended", "error");
+            return "Bid Failed: Auction Ended";
+        }
+        long persisted = System.nanoTime();
+        persistTime.record(persisted - decided, TimeUnit.NANOSECONDS);
+        UserRef leaderRef = decision.bids().get(decision.bids().size() - 1).bidder();
+        liveAuctionIndex.onBid(auctionId, decision.amount(), decision.bidCount(), decision.endTime(), leaderRef);
+        auctionSearchIndex.onBid(auctionId, decision.amount(), decision.bidCount(), decision.endTime(), leaderRef);
 
         Map<String, Object> update = new HashMap<>();
         update.put("auctionId", auctionId);
-        update.put("currentBid", auction.getCurrentBid());
-        update.put("bidCount", auction.getBidCount());
-        update.put("bidTime", bid.getBidTime());
-        update.put("endTime", auction.getEndTime());
-        messagingTemplate.convertAndSend("/topic/auction/" + auctionId, update);
-
-        Map<String, Object> notif = new HashMap<>();
-        notif.put("message", "Bid placed successfully!");
-        notif.put("type", "success");
-        messagingTemplate.convertAndSend("/user/" + bidder.getId() + "/notifications", notif);
-        Notification ns = new Notification();
-        ns.setUser(bidder);
-        ns.setMessage("Bid placed successfully!");
-        ns.setType("success");
-        ns.setCreatedAt(LocalDateTime.now());
-        ns.setRead(false);
-        notificationRepository.save(ns);
-
-        if (prevHighest != null && !prevHighest.getId().equals(bidder.getId())) {
-            Map<String, Object> outbid = new HashMap<>();
-            outbid.put("message", "You were outbid on " + auction.getProductName());
-            outbid.put("type", "warning");
-            messagingTemplate.convertAndSend("/user/" + prevHighest.getId() + "/notifications", outbid);
-            Notification no = new Notification();
-            no.setUser(prevHighest);
-            no.setMessage("You were outbid on " + auction.getProductName());
-            no.setType("warning");
-            no.setCreatedAt(LocalDateTime.now());
-            no.setRead(false);
-            notificationRepository.save(no);
-        }
-
-        Map<String, Object> sellerNotif = new HashMap<>();
-        sellerNotif.put("message", "New bid placed on your auction: " + auction.getProductName());
-        sellerNotif.put("type", "info");
-        messagingTemplate.convertAndSend("/user/" + auction.getSeller().getId() + "/notifications", sellerNotif);
-        Notification sl = new Notification();
-        sl.setUser(auction.getSeller());
-        sl.setMessage("New bid placed on your auction: " + auction.getProductName());
-        sl.setType("info");
-        sl.setCreatedAt(LocalDateTime.now());
-        sl.setRead(false);
-        notificationRepository.save(sl);
-
-        return "Bid Success";
+        update.put("currentBid", decision.amount());
+        update.put("bidCount", decision.bidCount());
+        update.put("bidTime", decision.bidTime());
+        update.put("endTime", decision.endTime());
+        auctionBroadcaster.publish(auctionId, update);
+
+        Long leaderId = decision.highestBidderId();
+        boolean leading = leaderId.equals(bidderId);
+        if (leading) {
+            notificationOutbox.enqueue(bidderId, auctionId, "Bid placed successfully!", "success");
+        } else {
+            notificationOutbox.enqueue(bidderId, auctionId, "You were outbid on " + decision.productName()
+                    + " by a higher maximum bid", "warning");
+        }
+        Set<Long> outbid = new LinkedHashSet<>(decision.exceededIds());
+        Long prevHighestId = decision.previousHighestBidderId();
+        if (prevHighestId != null) {
+            outbid.add(prevHighestId);
+        }
+        outbid.remove(bidderId);
+        outbid.remove(leaderId);
+        for (Long userId : outbid) {
+            notificationOutbox.enqueue(userId, auctionId, "You were outbid on " + decision.productName(), "warning");
+        }
+        if (!leading) {
+            notificationOutbox.enqueue(leaderId, auctionId, "Your maximum bid on " + decision.productName()
+                    + " placed a bid of $" + decision.amount(), "info");
+        }
+
+        if (decision.sellerId() != null) {
+            notificationOutbox.enqueue(decision.sellerId(), auctionId,
+                    "New bid placed on your auction: " + decision.productName(), "info");
+        }
+        broadcastTime.record(System.nanoTime() - persisted, TimeUnit.NANOSECONDS);
+
+        return leading ? "Bid Success" : "Bid Placed: outbid by a higher maximum bid";
     }
 }
@@ -0,0 +1,169 @@
+package com.eauction.service;
+
+import com.eauction.dto.AuctionNameView;
+import com.eauction.dto.AuctionUserView;
+import com.eauction.repository.AuctionRepository;
+import com.eauction.repository.BidRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Turns {@link AuctionEndingSoonEvent}s into "ends in 10 min / 1 min"
+ * notifications for the auction's watchers and bidders.
+ *
+ * <p>Events are only queued on the lifecycle tick. Every {@code dispatch-ms}
+ * the queued alerts are resolved to recipients with one bidder query and one
+ * name query per batch and parked per user. A user's alerts are sent once the
+ * first of them has waited {@code coalesce-fraction} of its lead (30 s for a
+ * 10 min warning, 3 s for a 1 min one by default), as a single notification
+ * such as "3 auctions you follow are ending soon: ...". Notifications go
+ * through the {@link NotificationOutbox}, which persists and pushes them to
+ * {@code /user/{id}/notifications} in batches.
+ */
+@Service
+public class EndingSoonAlerts {
+    private static final int MAX_NAMES = 3;
+    private static final int QUERY_CHUNK = 500;
+
+    private record Alert(long auctionId, long leadMs, String name) {
+    }
+
+    private static final class Parked {
+        final Map<Long, Alert> alerts = new HashMap<>();
+        long dueAt = Long.MAX_VALUE;
+    }
+
+    private final AuctionRepository auctionRepository;
+    private final BidRepository bidRepository;
+    private final WatcherIndex watcherIndex;
+    private final NotificationOutbox outbox;
+    private final double coalesceFraction;
+    private final Queue<AuctionEndingSoonEvent> pending = new ConcurrentLinkedQueue<>();
+    // Only touched by dispatch(), which never overlaps itself.
+    private final Map<Long, Parked> parked = new HashMap<>();
+
+    private final Counter alerts;
+    private final Counter notifications;
+
+    public EndingSoonAlerts(AuctionRepository auctionRepository, BidRepository bidRepository,
+            WatcherIndex watcherIndex, NotificationOutbox outbox, MeterRegistry registry,
+            @Value("${auction.ending-soon.coalesce-fraction:0.05}") double coalesceFraction) {
+        this.auctionRepository = auctionRepository;
+        this.bidRepository = bidRepository;
+        this.watcherIndex = watcherIndex;
+        this.outbox = outbox;
+        this.coalesceFraction = coalesceFraction;
+        this.alerts = Counter.builder("auction.ending-soon.alerts").description("Auction warnings fired")
+                .register(registry);
+        this.notifications = Counter.builder("auction.ending-soon.notifications")
+                .description("Notifications sent after coalescing per user").register(registry);
+        Gauge.builder("auction.ending-soon.parked", parked, Map::size).description("Users with alerts waiting")
+                .register(registry);
+    }
+
+    @EventListener
+    public void onEndingSoon(AuctionEndingSoonEvent event) {
+        pending.add(event);
+    }
+
+    @Scheduled(fixedDelayString = "${auction.ending-soon.dispatch-ms:500}")
+    void dispatch() {
+        long now = System.currentTimeMillis();
+        List<AuctionEndingSoonEvent> batch = new ArrayList<>();
+        for (AuctionEndingSoonEvent e; (e = pending.poll()) != null;) {
+            batch.add(e);
+        }
+        if (!batch.isEmpty()) {
+            park(batch, now);
+        }
+        for (Iterator<Map.Entry<Long, Parked>> it = parked.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Long, Parked> e = it.next();
+            if (e.getValue().dueAt <= now) {
+                it.remove();
+                send(e.getKey(), e.getValue().alerts.values());
+            }
+        }
+    }
+
+    private void park(List<AuctionEndingSoonEvent> batch, long now) {
+        List<Long> ids = batch.stream().flatMap(e -> e.auctionIds().stream()).distinct().toList();
+        alerts.increment(ids.size());
+        Map<Long, String> names = new HashMap<>();
+        Map<Long, List<Long>> bidders = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += QUERY_CHUNK) {
+            List<Long> chunk = ids.subList(i, Math.min(ids.size(), i + QUERY_CHUNK));
+            for (AuctionNameView n : auctionRepository.findNamesByIdIn(chunk)) {
+                names.put(n.getId(), n.getProductName());
+            }
+            for (AuctionUserView b : bidRepository.findBidderIdsByAuctionIdIn(chunk)) {
+                bidders.computeIfAbsent(b.getAuctionId(), k -> new ArrayList<>()).add(b.getUserId());
+            }
+        }
+        for (AuctionEndingSoonEvent e : batch) {
+            long dueAt = now + (long) (e.leadMs() * coalesceFraction);
+            for (Long id : e.auctionIds()) {
+                Alert alert = new Alert(id, e.leadMs(), names.getOrDefault(id, "auction #" + id));
+                for (long userId : watcherIndex.watchers(id)) {
+                    add(userId, alert, dueAt);
+                }
+                for (long userId : bidders.getOrDefault(id, List.of())) {
+                    add(userId, alert, dueAt);
+                }
+            }
+        }
+    }
+
+    // Per user and auction the most urgent alert wins, and the user's batch is due as soon as any alert in it is.
+    private void add(long userId, Alert alert, long dueAt) {
+        Parked p = parked.computeIfAbsent(userId, k -> new Parked());
+        p.alerts.merge(alert.auctionId(), alert, (a, b) -> a.leadMs() <= b.leadMs() ? a : b);
+        p.dueAt = Math.min(p.dueAt, dueAt);
+    }
+
+    private void send(long userId, Collection<Alert> mine) {
+        List<Alert> sorted = mine.stream().sorted(Comparator.comparingLong(Alert::leadMs)
+                .thenComparingLong(Alert::auctionId)).toList();
+        if (sorted.size() == 1) {
+            Alert a = sorted.get(0);
+            outbox.enqueue(userId, a.auctionId(), "Ending in " + lead(a.leadMs()) + ": " + a.name(), "warning");
+        } else {
+            outbox.enqueue(userId, summary(sorted), "warning");
+        }
+        notifications.increment();
+    }
+
+    private static String summary(List<Alert> alerts) {
+        StringBuilder sb = new StringBuilder().append(alerts.size()).append(" auctions you follow are ending soon: ");
+        int shown = Math.min(MAX_NAMES, alerts.size());
+        for (int i = 0; i < shown; i++) {
+            Alert a = alerts.get(i);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(a.name()).append(" (").append(lead(a.leadMs())).append(')');
+        }
+        if (alerts.size() > shown) {
+            sb.append(" and ").append(alerts.size() - shown).append(" more");
+        }
+        return sb.toString();
+    }
+
+    private static String lead(long ms) {
+        return ms % 60_000 == 0 ? ms / 60_000 + " min" : ms / 1000 + " s";
+    }
+}
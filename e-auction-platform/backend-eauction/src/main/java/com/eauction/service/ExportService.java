@@ -0,0 +1,210 @@
+package com.eauction.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams bid histories and auction results straight from a forward-only JDBC
+ * cursor to an output stream. Rows are written as they are read, so memory use
+ * does not depend on the size of the export.
+ */
+@Service
+public class ExportService {
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    public record ExportFilter(Long sellerId, Long auctionId, LocalDateTime from, LocalDateTime to, String status) {
+    }
+
+    private static final String[] BID_COLUMNS = { "bidId", "auctionId", "productName", "sellerId", "bidderId",
+            "bidder", "amount", "bidTime" };
+    private static final String[] RESULT_COLUMNS = { "auctionId", "productName", "category", "sellerId", "seller",
+            "status", "startTime", "endTime", "startingPrice", "finalPrice", "bidCount", "winnerId", "winner" };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public ExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+            @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public long exportBids(ExportFilter filter, Format format, OutputStream out) {
+        StringBuilder sql = new StringBuilder("select b.id, b.auction_id, a.product_name, a.seller_id, b.bidder_id, "
+                + "u.username, b.amount, b.bid_time from bid b join auction a on a.id = b.auction_id "
+                + "left join users u on u.id = b.bidder_id where 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (filter.sellerId() != null) {
+            sql.append(" and a.seller_id = ?");
+            params.add(filter.sellerId());
+        }
+        if (filter.auctionId() != null) {
+            sql.append(" and b.auction_id = ?");
+            params.add(filter.auctionId());
+        }
+        if (filter.from() != null) {
+            sql.append(" and b.bid_time >= ?");
+            params.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" and b.bid_time < ?");
+            params.add(Timestamp.valueOf(filter.to()));
+        }
+        if (filter.status() != null) {
+            sql.append(" and a.status = ?");
+            params.add(filter.status());
+        }
+        sql.append(" order by b.id");
+        return stream(sql.toString(), params, BID_COLUMNS, format, out);
+    }
+
+    public long exportAuctionResults(ExportFilter filter, Format format, OutputStream out) {
+        StringBuilder sql = new StringBuilder("select a.id, a.product_name, a.category, a.seller_id, s.username, "
+                + "a.status, a.start_time, a.end_time, a.starting_price, a.current_bid, a.bid_count, "
+                + "a.highest_bidder_id, h.username from auction a left join users s on s.id = a.seller_id "
+                + "left join users h on h.id = a.highest_bidder_id where 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (filter.sellerId() != null) {
+            sql.append(" and a.seller_id = ?");
+            params.add(filter.sellerId());
+        }
+        if (filter.auctionId() != null) {
+            sql.append(" and a.id = ?");
+            params.add(filter.auctionId());
+        }
+        if (filter.from() != null) {
+            sql.append(" and a.end_time >= ?");
+            params.add(Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            sql.append(" and a.end_time < ?");
+            params.add(Timestamp.valueOf(filter.to()));
+        }
+        if (filter.status() != null) {
+            sql.append(" and a.status = ?");
+            params.add(filter.status());
+        }
+        sql.append(" order by a.id");
+        return stream(sql.toString(), params, RESULT_COLUMNS, format, out);
+    }
+
+    private long stream(String sql, List<Object> params, String[] columns, Format format, OutputStream out) {
+        Long written = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+            try (PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(streamingFetchSize(con));
+                for (int i = 0; i < params.size(); i++) {
+                    ps.setObject(i + 1, params.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    try {
+                        return format == Format.CSV ? writeCsv(rs, columns, out) : writeNdjson(rs, columns, out);
+                    } catch (UncheckedIOException e) {
+                        // The client went away; stop the server from producing the rest of the result.
+                        log.debug("Export aborted by client: {}", e.getMessage());
+                        ps.cancel();
+                        return -1L;
+                    }
+                }
+            }
+        });
+        return written == null ? -1 : written;
+    }
+
+    private int streamingFetchSize(Connection con) throws SQLException {
+        // Connector/J buffers the whole result unless asked to stream row by row.
+        return con.getMetaData().getDatabaseProductName().startsWith("MySQL") ? Integer.MIN_VALUE : fetchSize;
+    }
+
+    private long writeNdjson(ResultSet rs, String[] columns, OutputStream out) throws SQLException {
+        long rows = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+            while (rs.next()) {
+                json.writeStartObject();
+                for (int i = 0; i < columns.length; i++) {
+                    json.writeFieldName(columns[i]);
+                    json.writeObject(value(rs, i + 1));
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+                if (++rows % 500 == 0) {
+                    json.flush();
+                }
+            }
+            json.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private long writeCsv(ResultSet rs, String[] columns, OutputStream out) throws SQLException {
+        long rows = 0;
+        try {
+            Writer w = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+            w.write(String.join(",", columns));
+            w.write('\n');
+            while (rs.next()) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        w.write(',');
+                    }
+                    Object v = value(rs, i + 1);
+                    if (v != null) {
+                        w.write(csv(v.toString()));
+                    }
+                }
+                w.write('\n');
+                if (++rows % 500 == 0) {
+                    w.flush();
+                }
+            }
+            w.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object v = rs.getObject(column);
+        return v instanceof Timestamp ts ? ts.toLocalDateTime().toString() : v;
+    }
+
+    private static String csv(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+            return s;
+        }
+        return '"' + s.replace("\"", "\"\"") + '"';
+    }
+}
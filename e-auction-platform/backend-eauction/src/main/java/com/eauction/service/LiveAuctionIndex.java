@@ -0,0 +1,319 @@
+package com.eauction.service;
+
+import com.eauction.dto.AuctionView;
+import com.eauction.dto.UserRef;
+import com.eauction.model.Auction;
+import com.eauction.repository.AuctionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory index of live auctions backing {@code GET /api/auctions/live}.
+ *
+ * <p>Bid and lifecycle events update a concurrent map of immutable
+ * {@link AuctionView}s; a scheduled task republishes an immutable, sorted
+ * snapshot from it whenever it changed. Readers only dereference the current
+ * snapshot, so they never touch the database or take a lock.
+ *
+ * <p>Staleness: changes made on this node are visible after at most
+ * {@code auction.live-index.publish-ms}. Changes made elsewhere (another node,
+ * manual SQL) are picked up by the full rebuild every
+ * {@code auction.live-index.rebuild-ms}. Entries changed on this node while
+ * the rebuild query runs are newer than what it may have read: they are
+ * neither dropped nor overwritten, except by a load with a higher bid count.
+ *
+ * <p>The same entries are also kept in one concurrent skip list per
+ * {@link AuctionFeed}, keyed by (sort value, id). Every change to an entry
+ * re-keys it inside that entry's map update, adding the new key before
+ * dropping the old one, so a bid or auto-extension moves the auction without
+ * it ever disappearing from a feed. Feed pages walk the skip list from the
+ * cursor and skip keys that no longer match their entry, so they are current
+ * rather than snapshot-stale and need no sorting per request.
+ */
+@Service
+public class LiveAuctionIndex {
+
+    private final AuctionRepository auctionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WatcherIndex watcherIndex;
+    private final Map<Long, AuctionView> entries = new ConcurrentHashMap<>();
+    private final Map<AuctionFeed, NavigableSet<FeedKey>> feeds = new EnumMap<>(AuctionFeed.class);
+    private volatile List<AuctionView> snapshot;
+    private volatile boolean dirty;
+    private volatile long publishedAt;
+    // Ids changed while a rebuild is loading; recorded inside the entry's map update.
+    private volatile Set<Long> touched;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer rebuildTime;
+
+    public LiveAuctionIndex(AuctionRepository auctionRepository, TransactionTemplate transactionTemplate,
+            WatcherIndex watcherIndex, MeterRegistry registry) {
+        this.auctionRepository = auctionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.watcherIndex = watcherIndex;
+        for (AuctionFeed feed : AuctionFeed.values()) {
+            feeds.put(feed, new ConcurrentSkipListSet<>());
+        }
+        this.hits = Counter.builder("auction.live.index.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("auction.live.index.requests").tag("result", "miss").register(registry);
+        this.rebuildTime = Timer.builder("auction.live.index.rebuild").register(registry);
+        Gauge.builder("auction.live.index.size", entries, Map::size).register(registry);
+        Gauge.builder("auction.live.index.age.ms", this,
+                i -> i.publishedAt == 0 ? 0 : System.currentTimeMillis() - i.publishedAt).register(registry);
+    }
+
+    /** The current snapshot, or {@code null} if the index has not been built yet. */
+    public List<AuctionView> snapshot() {
+        List<AuctionView> s = snapshot;
+        if (s == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return s;
+    }
+
+    public record FeedPage(List<AuctionView> items, String nextCursor) {
+    }
+
+    /** Up to {@code limit} live auctions of a feed after {@code cursor}, with the cursor of the next page if any. */
+    public FeedPage feed(AuctionFeed feed, String cursor, int limit) {
+        FeedKey after = FeedKey.decode(cursor);
+        NavigableSet<FeedKey> keys = feeds.get(feed);
+        LocalDateTime now = LocalDateTime.now();
+        List<AuctionView> page = new ArrayList<>(limit);
+        FeedKey last = null;
+        for (FeedKey k : after == null ? keys : keys.tailSet(after, false)) {
+            AuctionView v = entries.get(k.id());
+            // Old keys of a concurrent re-key, and auctions past their end whose lifecycle event is still due.
+            if (v == null || feed.key(v) != k.sort() || !isLive(v.enabled(), v.startTime(), v.endTime(), now)) {
+                continue;
+            }
+            if (page.size() == limit) {
+                return new FeedPage(page, last.encode());
+            }
+            page.add(watcherIndex.annotate(v));
+            last = k;
+        }
+        return new FeedPage(page, null);
+    }
+
+    public void onBid(long auctionId, double amount, int bidCount, LocalDateTime endTime, UserRef bidder) {
+        AuctionView updated = entries.computeIfPresent(auctionId, (id, v) -> {
+            // Decisions reach here from request threads and may be out of order; the older one loses.
+            if (bidCount <= bidCount(v)) {
+                return v;
+            }
+            AuctionView next = v.withBid(amount, bidCount, endTime, bidder);
+            reindex(id, v, next);
+            touch(id);
+            return next;
+        });
+        if (updated != null) {
+            dirty = true;
+        }
+    }
+
+    /** Re-evaluates an auction after it was created or edited. */
+    public void refresh(Auction auction) {
+        if (isLive(auction.isEnabled(), auction.getStartTime(), auction.getEndTime(), LocalDateTime.now())) {
+            put(auction.getId(), AuctionView.from(auction));
+        } else {
+            delete(auction.getId());
+        }
+        dirty = true;
+    }
+
+    /** Watch counts are copied into the snapshot on publish; a toggle only needs to trigger one. */
+    public void watchersChanged(long auctionId) {
+        if (entries.containsKey(auctionId)) {
+            dirty = true;
+        }
+    }
+
+    public void remove(long auctionId) {
+        if (delete(auctionId)) {
+            dirty = true;
+        }
+    }
+
+    @EventListener
+    public void onLifecycle(AuctionLifecycleEvent event) {
+        if ("ENDED".equals(event.status())) {
+            event.auctionIds().forEach(this::delete);
+        } else if ("LIVE".equals(event.status())) {
+            transactionTemplate.executeWithoutResult(tx -> {
+                for (Auction a : auctionRepository.findWithUsersByIdIn(event.auctionIds())) {
+                    put(a.getId(), AuctionView.from(a).withStatus("LIVE"));
+                }
+            });
+        }
+        dirty = true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${auction.live-index.rebuild-ms:60000}",
+            fixedDelayString = "${auction.live-index.rebuild-ms:60000}")
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rebuildTime.record(this::reload);
+        } finally {
+            touched = null;
+            rebuilding.set(false);
+        }
+    }
+
+    private void reload() {
+        Set<Long> changed = ConcurrentHashMap.newKeySet();
+        touched = changed;
+        Map<Long, AuctionView> fresh = new HashMap<>();
+        transactionTemplate.executeWithoutResult(tx -> {
+            for (Auction a : auctionRepository.findLiveAuctions()) {
+                fresh.put(a.getId(), AuctionView.from(a));
+            }
+        });
+        for (Long id : entries.keySet()) {
+            if (!fresh.containsKey(id) && !changed.contains(id)) {
+                delete(id);
+            }
+        }
+        fresh.forEach((id, loaded) -> entries.compute(id, (k, current) -> {
+            AuctionView v;
+            if (changed.contains(k)) {
+                // Changed here while the query ran, and possibly removed; only a later bid in the load wins.
+                v = current != null && bidCount(loaded) > bidCount(current) ? loaded : current;
+            } else {
+                // A bid accepted while the query ran is newer than what the query saw.
+                v = current != null && bidCount(loaded) < bidCount(current) ? current : loaded;
+            }
+            if (v != current) {
+                reindex(k, current, v);
+            }
+            return v;
+        }));
+        dirty = true;
+        publish();
+    }
+
+    @Scheduled(fixedDelayString = "${auction.live-index.publish-ms:250}")
+    void publish() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        LocalDateTime now = LocalDateTime.now();
+        List<AuctionView> live = new ArrayList<>(entries.size());
+        for (AuctionView v : entries.values()) {
+            if (isLive(v.enabled(), v.startTime(), v.endTime(), now)) {
+                live.add(watcherIndex.annotate(v));
+            }
+        }
+        live.sort(Comparator.comparing(AuctionView::id));
+        snapshot = List.copyOf(live);
+        publishedAt = System.currentTimeMillis();
+    }
+
+    private void put(long auctionId, AuctionView view) {
+        entries.compute(auctionId, (id, current) -> {
+            reindex(id, current, view);
+            touch(id);
+            return view;
+        });
+    }
+
+    private boolean delete(long auctionId) {
+        boolean[] removed = new boolean[1];
+        entries.computeIfPresent(auctionId, (id, current) -> {
+            reindex(id, current, null);
+            touch(id);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    private void touch(long auctionId) {
+        Set<Long> changed = touched;
+        if (changed != null) {
+            changed.add(auctionId);
+        }
+    }
+
+    // Runs inside the entry's map update, so changes to one auction's feed keys never interleave.
+    private void reindex(long auctionId, AuctionView before, AuctionView after) {
+        feeds.forEach((feed, keys) -> {
+            FeedKey next = after == null ? null : new FeedKey(feed.key(after), auctionId);
+            if (next != null) {
+                keys.add(next);
+            }
+            if (before != null) {
+                FeedKey prev = new FeedKey(feed.key(before), auctionId);
+                if (!prev.equals(next)) {
+                    keys.remove(prev);
+                }
+            }
+        });
+    }
+
+    private record FeedKey(long sort, long id) implements Comparable<FeedKey> {
+        @Override
+        public int compareTo(FeedKey o) {
+            int c = Long.compare(sort, o.sort);
+            return c != 0 ? c : Long.compare(id, o.id);
+        }
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((sort + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static FeedKey decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.lastIndexOf('|');
+                return new FeedKey(Long.parseLong(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
+    private static int bidCount(AuctionView v) {
+        return v.bidCount() == null ? 0 : v.bidCount();
+    }
+
+    private static boolean isLive(boolean enabled, LocalDateTime start, LocalDateTime end, LocalDateTime now) {
+        return enabled && start != null && end != null && !start.isAfter(now) && !end.isBefore(now);
+    }
+}
@@ -0,0 +1,47 @@
+package com.eauction.service;
+
+import com.eauction.dto.UserRef;
+import com.eauction.model.Auction;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Price state of one auction as seen by its bid lane. Only ever read or
+ * written from the lane thread that owns the auction.
+ */
+class LiveAuctionState {
+    final long auctionId;
+    final String productName;
+    final Long sellerId;
+    final double startingPrice;
+    final double minIncrement;
+    final boolean autoExtend;
+    final Double buyNowPrice;
+    Double currentBid;
+    int bidCount;
+    Long highestBidderId;
+    LocalDateTime endTime;
+    // Bought with Buy Now; refuses further bids until the closed auction has been persisted and evicted.
+    boolean closed;
+    // Hidden maximums by bidder id.
+    final Map<Long, Proxy> proxies = new HashMap<>();
+
+    record Proxy(UserRef bidder, double max, LocalDateTime placedAt) {
+    }
+
+    LiveAuctionState(Auction auction) {
+        this.auctionId = auction.getId();
+        this.productName = auction.getProductName();
+        this.sellerId = auction.getSeller() != null ? auction.getSeller().getId() : null;
+        this.startingPrice = auction.getStartingPrice();
+        this.minIncrement = auction.getMinIncrement() != null ? auction.getMinIncrement() : 1.0;
+        this.autoExtend = Boolean.TRUE.equals(auction.getAutoExtend());
+        this.buyNowPrice = auction.getBuyNowPrice();
+        this.currentBid = auction.getCurrentBid();
+        this.bidCount = auction.getBidCount() != null ? auction.getBidCount() : 0;
+        this.highestBidderId = auction.getHighestBidder() != null ? auction.getHighestBidder().getId() : null;
+        this.endTime = auction.getEndTime();
+    }
+}
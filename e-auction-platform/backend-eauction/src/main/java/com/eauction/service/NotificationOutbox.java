@@ -0,0 +1,234 @@
+package com.eauction.service;
+
+import com.eauction.model.Notification;
+import com.eauction.repository.NotificationRepository;
+import com.eauction.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes user notifications off the request path. Callers enqueue a small event
+ * and return; a single background worker drains the queue, inserts the
+ * {@link Notification} rows of a whole batch in one JDBC batch and then pushes
+ * each message to {@code /user/{id}/notifications}, along with the user's
+ * unread count when {@link UnreadCounters} already has it.
+ *
+ * <p>Only committed notifications are counted and pushed. A failed insert is
+ * retried up to {@code max-attempts} times with a doubling backoff from
+ * {@code retry-backoff-ms}; after that the batch is inserted row by row, so
+ * one bad row only loses itself.
+ */
+@Service
+public class NotificationOutbox {
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutbox.class);
+
+    public record NotificationEvent(long userId, Long auctionId, String message, String type,
+            LocalDateTime createdAt) {
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final UserRepository userRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadCounters unreadCounters;
+    private final BlockingQueue<NotificationEvent> queue;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final boolean virtualThreads;
+
+    private final DistributionSummary batchSizes;
+    private final Timer flushLatency;
+    private final Counter failures;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public NotificationOutbox(NotificationRepository notificationRepository, UserRepository userRepository,
+            SimpMessagingTemplate messagingTemplate, TransactionTemplate transactionTemplate,
+            UnreadCounters unreadCounters, MeterRegistry registry,
+            @Value("${notifications.outbox.capacity:100000}") int capacity,
+            @Value("${notifications.outbox.batch-size:200}") int batchSize,
+            @Value("${notifications.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${notifications.outbox.retry-backoff-ms:200}") long retryBackoffMs,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.notificationRepository = notificationRepository;
+        this.userRepository = userRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.unreadCounters = unreadCounters;
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.virtualThreads = virtualThreads;
+        Gauge.builder("notifications.outbox.queue.depth", queue, BlockingQueue::size).register(registry);
+        this.batchSizes = DistributionSummary.builder("notifications.outbox.batch.size").register(registry);
+        this.flushLatency = Timer.builder("notifications.outbox.flush").publishPercentileHistogram()
+                .register(registry);
+        this.failures = Counter.builder("notifications.outbox.failures").register(registry);
+    }
+
+    public void enqueue(long userId, String message, String type) {
+        enqueue(userId, null, message, type);
+    }
+
+    /** Queues a notification about one auction; retention may collapse repeats of it for the same user. */
+    public void enqueue(long userId, Long auctionId, String message, String type) {
+        NotificationEvent event = new NotificationEvent(userId, auctionId, message, type, LocalDateTime.now());
+        try {
+            // Blocks only when the worker is far behind, which applies back-pressure to callers.
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing notification", e);
+        }
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        // Virtual threads are always daemon threads.
+        worker = virtualThreads ? Thread.ofVirtual().name("notification-outbox").start(this::run)
+                : Thread.ofPlatform().name("notification-outbox").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+        List<NotificationEvent> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int i = 0; i < rest.size(); i += batchSize) {
+            flush(rest.subList(i, Math.min(rest.size(), i + batchSize)));
+        }
+    }
+
+    private void run() {
+        List<NotificationEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                NotificationEvent first = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Stopping while a batch waits for a retry; hand it back for stop() to flush.
+                for (NotificationEvent event : batch) {
+                    if (!queue.offer(event)) {
+                        failures.increment();
+                    }
+                }
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserts notification rows in the caller's transaction, for callers that
+     * must write them atomically with their own changes. Once that transaction
+     * has committed, {@link #delivered} updates the unread counts and pushes;
+     * pass it an {@link UnreadCounters#stamp()} taken before the transaction.
+     */
+    public void persist(List<NotificationEvent> events) {
+        List<Notification> rows = new ArrayList<>(events.size());
+        for (NotificationEvent e : events) {
+            Notification n = new Notification();
+            n.setUser(userRepository.getReferenceById(e.userId()));
+            n.setAuctionId(e.auctionId());
+            n.setMessage(e.message());
+            n.setType(e.type());
+            n.setCreatedAt(e.createdAt());
+            n.setRead(false);
+            rows.add(n);
+        }
+        notificationRepository.saveAll(rows);
+    }
+
+    public void delivered(List<NotificationEvent> events, long stamp) {
+        for (NotificationEvent e : events) {
+            unreadCounters.added(e.userId(), 1, stamp);
+        }
+        push(events);
+    }
+
+    private void flush(List<NotificationEvent> batch) throws InterruptedException {
+        long start = System.nanoTime();
+        long stamp = unreadCounters.stamp();
+        List<NotificationEvent> committed = batch;
+        for (int attempt = 1; !insert(batch); attempt++) {
+            if (attempt >= maxAttempts) {
+                committed = new ArrayList<>(batch.size());
+                for (NotificationEvent e : batch) {
+                    if (insert(List.of(e))) {
+                        committed.add(e);
+                    }
+                }
+                failures.increment(batch.size() - committed.size());
+                break;
+            }
+            Thread.sleep(retryBackoffMs << (attempt - 1));
+        }
+        delivered(committed, stamp);
+        batchSizes.record(batch.size());
+        flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean insert(List<NotificationEvent> events) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(events));
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Failed to persist {} notifications", events.size(), ex);
+            return false;
+        }
+    }
+
+    private void push(List<NotificationEvent> batch) {
+        for (NotificationEvent e : batch) {
+            Map<String, Object> payload = new HashMap<>();
+            payload.put("message", e.message());
+            payload.put("type", e.type());
+            Integer unread = unreadCounters.peek(e.userId());
+            if (unread != null) {
+                payload.put("unread", unread);
+            }
+            try {
+                messagingTemplate.convertAndSend("/user/" + e.userId() + "/notifications", payload);
+            } catch (RuntimeException ex) {
+                log.warn("Failed to push notification to user {}", e.userId(), ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.eauction.service;
+
+import com.eauction.dto.NotificationCompactionGroup;
+import com.eauction.repository.NotificationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the notification table from growing with every bid. A run first
+ * collapses runs of identical notifications about one auction (same user,
+ * type and message, older than {@code collapse-after-ms}) into their newest
+ * row, whose {@code repeatCount} then says how many it stands for. It then
+ * deletes read notifications older than {@code read-ttl-days}.
+ *
+ * <p>All work happens in chunks of {@code chunk-size} rows or groups, each in
+ * its own short transaction, walking the table in auction or id order. Before
+ * every chunk the job waits while more than {@code max-in-flight-bids} bids
+ * are in flight or the outbox is backed up, but never longer than
+ * {@code max-wait-ms}, so steady bidding slows it down without starving it.
+ * It stops when the run has used {@code run-budget-ms}; whatever is left is
+ * picked up by the next run. Runs happen every {@code interval-ms} on the
+ * job's own thread, since it sleeps between chunks and must not hold a thread
+ * of the shared scheduler.
+ */
+@Service
+public class NotificationRetention {
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetention.class);
+
+    public record Report(int groupsCollapsed, int rowsCollapsed, int rowsPurged, boolean complete, long elapsedMs) {
+        public int rowsReclaimed() {
+            return rowsCollapsed + rowsPurged;
+        }
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UnreadCounters unreadCounters;
+    private final BidEngine bidEngine;
+    private final NotificationOutbox outbox;
+    private final boolean enabled;
+    private final Set<String> collapseTypes;
+    private final Duration collapseAfter;
+    private final Duration readTtl;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final long runBudgetMs;
+    private final long intervalMs;
+    private final int maxInFlightBids;
+    private final long maxWaitMs;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private ScheduledExecutorService executor;
+
+    private final Counter collapsed;
+    private final Counter purged;
+    private final Timer runTime;
+
+    public NotificationRetention(NotificationRepository notificationRepository,
+            TransactionTemplate transactionTemplate, UnreadCounters unreadCounters, BidEngine bidEngine,
+            NotificationOutbox outbox, MeterRegistry registry,
+            @Value("${notifications.retention.enabled:true}") boolean enabled,
+            @Value("${notifications.retention.collapse-types:info,success}") Set<String> collapseTypes,
+            @Value("${notifications.retention.collapse-after-ms:3600000}") long collapseAfterMs,
+            @Value("${notifications.retention.read-ttl-days:30}") long readTtlDays,
+            @Value("${notifications.retention.chunk-size:500}") int chunkSize,
+            @Value("${notifications.retention.pause-ms:50}") long pauseMs,
+            @Value("${notifications.retention.run-budget-ms:10000}") long runBudgetMs,
+            @Value("${notifications.retention.interval-ms:300000}") long intervalMs,
+            @Value("${notifications.retention.max-in-flight-bids:4}") int maxInFlightBids,
+            @Value("${notifications.retention.max-wait-ms:1000}") long maxWaitMs) {
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.unreadCounters = unreadCounters;
+        this.bidEngine = bidEngine;
+        this.outbox = outbox;
+        this.enabled = enabled;
+        this.collapseTypes = collapseTypes;
+        this.collapseAfter = Duration.ofMillis(collapseAfterMs);
+        this.readTtl = Duration.ofDays(readTtlDays);
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+        this.runBudgetMs = runBudgetMs;
+        this.intervalMs = intervalMs;
+        this.maxInFlightBids = maxInFlightBids;
+        this.maxWaitMs = maxWaitMs;
+        this.collapsed = Counter.builder("notifications.retention.reclaimed").tag("action", "collapsed")
+                .register(registry);
+        this.purged = Counter.builder("notifications.retention.reclaimed").tag("action", "purged")
+                .register(registry);
+        this.runTime = Timer.builder("notifications.retention.run").register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notification-retention");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::scheduled, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void scheduled() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            // An escaping exception would cancel every later run.
+            log.warn("Notification retention run failed", e);
+        }
+    }
+
+    /** Runs one pass now; returns null if a pass is already running. */
+    public Report run() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(runBudgetMs);
+            LocalDateTime now = LocalDateTime.now();
+            Tally tally = new Tally();
+            boolean complete = collapse(now.minus(collapseAfter), deadline, tally)
+                    && purge(now.minus(readTtl), deadline, tally);
+            long elapsed = System.nanoTime() - start;
+            runTime.record(elapsed, TimeUnit.NANOSECONDS);
+            Report report = new Report(tally.groups, tally.collapsed, tally.purged, complete,
+                    TimeUnit.NANOSECONDS.toMillis(elapsed));
+            if (report.rowsReclaimed() > 0 || !complete) {
+                log.info("Notification retention reclaimed {} rows ({} collapsed in {} groups, {} read purged) "
+                        + "in {} ms{}", report.rowsReclaimed(), report.rowsCollapsed(), report.groupsCollapsed(),
+                        report.rowsPurged(), report.elapsedMs(), complete ? "" : ", unfinished");
+            }
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private static class Tally {
+        int groups;
+        int collapsed;
+        int purged;
+    }
+
+    /** Returns true once nothing is left to collapse. */
+    private boolean collapse(LocalDateTime before, long deadline, Tally tally) {
+        long fromAuctionId = 0;
+        while (awaitQuiet(deadline)) {
+            List<NotificationCompactionGroup> chunk = notificationRepository.findCompactionGroups(collapseTypes,
+                    before, fromAuctionId, PageRequest.of(0, chunkSize));
+            if (chunk.isEmpty()) {
+                return true;
+            }
+            int budget = chunkSize;
+            // Each group is its own transaction, so locks are held for one group's rows at a time.
+            for (NotificationCompactionGroup g : chunk) {
+                if (budget <= 0) {
+                    break;
+                }
+                long stamp = unreadCounters.stamp();
+                Integer deleted = transactionTemplate.execute(tx -> {
+                    notificationRepository.collapseInto(g.getKeepId(), g.getTotal().intValue(),
+                            g.getUnread() == 0);
+                    return notificationRepository.deleteCollapsed(g.getUserId(), g.getAuctionId(), g.getType(),
+                            g.getMessage(), g.getKeepId());
+                });
+                // The group's unread rows now count as a single unread notification, or none.
+                unreadCounters.removed(g.getUserId(), (int) (g.getUnread() - Math.min(1, g.getUnread())),
+                        stamp);
+                tally.groups++;
+                tally.collapsed += deleted;
+                collapsed.increment(deleted);
+                budget -= g.getRowCount().intValue();
+                // Collapsed groups drop out of the query, so the next chunk starts at this auction, not after it.
+                fromAuctionId = g.getAuctionId();
+            }
+        }
+        return false;
+    }
+
+    /** Returns true once nothing is left to purge. */
+    private boolean purge(LocalDateTime before, long deadline, Tally tally) {
+        long afterId = 0;
+        while (awaitQuiet(deadline)) {
+            List<Long> ids = notificationRepository.findReadIdsBefore(before, afterId, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                return true;
+            }
+            int deleted = notificationRepository.deleteByIds(ids);
+            tally.purged += deleted;
+            purged.increment(deleted);
+            afterId = ids.get(ids.size() - 1);
+        }
+        return false;
+    }
+
+    private boolean busy() {
+        return bidEngine.inFlight() > maxInFlightBids || outbox.depth() > chunkSize;
+    }
+
+    /**
+     * Pauses between chunks and while bidding is busy, up to {@code max-wait-ms}; false once the run budget is
+     * used up.
+     */
+    private boolean awaitQuiet(long deadline) {
+        long waitUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        do {
+            try {
+                Thread.sleep(pauseMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+        } while (busy() && System.nanoTime() < waitUntil);
+        return true;
+    }
+}
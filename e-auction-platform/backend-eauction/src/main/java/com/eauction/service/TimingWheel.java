@@ -0,0 +1,135 @@
+package com.eauction.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Scheduling is O(1); advancing costs one bucket
+ * per elapsed tick plus the entries that actually expire or cascade down from
+ * a coarser wheel. An entry fires on the first {@link #advance} whose time is
+ * past its deadline, so it is late by at most one tick and never early.
+ *
+ * <p>Not thread-safe; callers serialize access.
+ */
+public final class TimingWheel<T> {
+
+    private static final class Entry<T> {
+        final long deadline;
+        final T item;
+
+        Entry(long deadline, T item) {
+            this.deadline = deadline;
+            this.item = item;
+        }
+    }
+
+    private static final class Level<T> {
+        final long tickMs;
+        final int wheelSize;
+        final long interval;
+        final ArrayDeque<Entry<T>>[] buckets;
+        long currentTime;
+        Level<T> overflow;
+
+        @SuppressWarnings("unchecked")
+        Level(long tickMs, int wheelSize, long now) {
+            this.tickMs = tickMs;
+            this.wheelSize = wheelSize;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new ArrayDeque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+            this.currentTime = now - Math.floorMod(now, tickMs);
+        }
+
+        ArrayDeque<Entry<T>> bucketFor(long time) {
+            return buckets[(int) Math.floorMod(Math.floorDiv(time, tickMs), (long) wheelSize)];
+        }
+
+        Level<T> overflow() {
+            if (overflow == null) {
+                overflow = new Level<>(interval, wheelSize, currentTime);
+            }
+            return overflow;
+        }
+
+        /** Only receives deadlines at least one tick past this level's current bucket. */
+        void insert(Entry<T> e) {
+            if (e.deadline < currentTime + interval) {
+                bucketFor(e.deadline).add(e);
+            } else {
+                overflow().insert(e);
+            }
+        }
+
+        /** Called when the level below reaches {@code time}, a multiple of this level's tick. */
+        void cascade(long time, Consumer<Entry<T>> sink) {
+            currentTime = time;
+            if (overflow != null && Math.floorMod(time, interval) == 0) {
+                overflow.cascade(time, sink);
+            }
+            ArrayDeque<Entry<T>> bucket = bucketFor(time);
+            Entry<T> e;
+            while ((e = bucket.poll()) != null) {
+                sink.accept(e);
+            }
+        }
+    }
+
+    private final Level<T> root;
+    private final List<Entry<T>> due = new ArrayList<>();
+    private int size;
+
+    public TimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize greater than 1");
+        }
+        this.root = new Level<>(tickMs, wheelSize, startMs);
+    }
+
+    public void schedule(long deadlineMs, T item) {
+        place(new Entry<>(deadlineMs, item));
+        size++;
+    }
+
+    /** Fires, in deadline-bucket order, every entry whose deadline is before {@code nowMs}. */
+    public void advance(long nowMs, Consumer<T> expired) {
+        if (!due.isEmpty()) {
+            List<Entry<T>> ready = new ArrayList<>(due);
+            due.clear();
+            for (Entry<T> e : ready) {
+                size--;
+                expired.accept(e.item);
+            }
+        }
+        while (root.currentTime + root.tickMs <= nowMs) {
+            root.currentTime += root.tickMs;
+            ArrayDeque<Entry<T>> bucket = root.bucketFor(root.currentTime - root.tickMs);
+            Entry<T> e;
+            while ((e = bucket.poll()) != null) {
+                size--;
+                expired.accept(e.item);
+            }
+            if (root.overflow != null && Math.floorMod(root.currentTime, root.interval) == 0) {
+                root.overflow.cascade(root.currentTime, this::place);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void place(Entry<T> e) {
+        if (e.deadline < root.currentTime) {
+            due.add(e);
+        } else if (e.deadline < root.currentTime + root.interval) {
+            root.bucketFor(e.deadline).add(e);
+        } else {
+            root.overflow().insert(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.eauction.service;
+
+import com.eauction.repository.NotificationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Unread notification count per user. A user's count is loaded with one count
+ * query and from then on adjusted by the outbox as rows are inserted and by the
+ * inbox as rows are marked read. Entries are reloaded after {@code ttl}, which
+ * bounds any drift from writes made on other nodes.
+ * <p>
+ * Writers take a {@link #stamp()} before the transaction that changes unread
+ * rows and pass it along once it has committed. A count whose query started
+ * after that stamp may already include the write, so instead of being adjusted
+ * twice it is dropped and the next read counts again. Adjustments go through
+ * the cache's compute, so one made while a load is running waits for it.
+ */
+@Service
+public class UnreadCounters {
+    private final NotificationRepository notificationRepository;
+    private final Cache<Long, Count> counts;
+
+    private record Count(long queriedAt, AtomicInteger value) {
+    }
+
+    public UnreadCounters(NotificationRepository notificationRepository, MeterRegistry meterRegistry,
+            @Value("${notifications.unread-cache.max-size:100000}") long maxSize,
+            @Value("${notifications.unread-cache.ttl-ms:600000}") long ttlMs) {
+        this.notificationRepository = notificationRepository;
+        long ttl = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                // Measured from the load, as expireAfterWrite would be, but not restarted by each adjustment.
+                .expireAfter(new Expiry<Long, Count>() {
+                    @Override
+                    public long expireAfterCreate(Long userId, Count count, long now) {
+                        return ttl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long userId, Count count, long now, long remaining) {
+                        return remaining;
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long userId, Count count, long now, long remaining) {
+                        return remaining;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "notifications.unread");
+    }
+
+    /** Taken before a transaction that inserts, reads or unreads notifications. */
+    public long stamp() {
+        return System.nanoTime();
+    }
+
+    public int get(long userId) {
+        return counts.get(userId, id -> {
+            long queriedAt = System.nanoTime();
+            return new Count(queriedAt, new AtomicInteger((int) notificationRepository.countUnread(id)));
+        }).value().get();
+    }
+
+    /** The cached count, or null if this user's count is not loaded; never queries. */
+    public Integer peek(long userId) {
+        Count count = counts.getIfPresent(userId);
+        return count == null ? null : count.value().get();
+    }
+
+    public void added(long userId, int n, long stamp) {
+        adjust(userId, stamp, c -> c + n);
+    }
+
+    public void removed(long userId, int n, long stamp) {
+        adjust(userId, stamp, c -> Math.max(0, c - n));
+    }
+
+    private void adjust(long userId, long stamp, IntUnaryOperator change) {
+        counts.asMap().compute(userId, (id, count) -> {
+            if (count == null || count.queriedAt() - stamp >= 0) {
+                return null;
+            }
+            count.value().updateAndGet(change);
+            return count;
+        });
+    }
+}
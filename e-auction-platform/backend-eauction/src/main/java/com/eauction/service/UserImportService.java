@@ -0,0 +1,228 @@
+package com.eauction.service;
+
+import com.eauction.model.User;
+import com.eauction.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk user onboarding. Records are read from the request stream in chunks.
+ * Each chunk's passwords are hashed on a fixed-size pool, so BCrypt work is
+ * capped at that many cores and never runs on request threads. The chunk is
+ * then inserted as one JDBC batch.
+ */
+@Service
+public class UserImportService {
+    private static final Set<String> ROLES = Set.of("BIDDER", "SELLER", "ADMIN");
+
+    public record ImportResult(int imported, int duplicates, int invalid, long elapsedMs) {
+        public double usersPerSecond() {
+            return elapsedMs == 0 ? imported : imported * 1000.0 / elapsedMs;
+        }
+    }
+
+    private record Row(String username, String password, String role) {
+    }
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService hashers;
+    private final int batchSize;
+    private final MeterRegistry meterRegistry;
+    private final Timer importTime;
+
+    public UserImportService(UserRepository userRepository, PasswordEncoder passwordEncoder, ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+            @Value("${users.import.hash-threads:0}") int hashThreads,
+            @Value("${users.import.batch-size:500}") int batchSize) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.meterRegistry = meterRegistry;
+        int n = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger seq = new AtomicInteger();
+        this.hashers = Executors.newFixedThreadPool(n, r -> {
+            Thread t = new Thread(r, "password-hash-" + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        this.importTime = Timer.builder("users.import").register(meterRegistry);
+    }
+
+    public ImportResult importUsers(InputStream in, boolean csv) throws IOException {
+        long start = System.nanoTime();
+        int[] tally = new int[3]; // imported, duplicates, invalid
+        Set<String> seen = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        boolean first = true;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            boolean header = first && csv && line.regionMatches(true, 0, "username,", 0, 9);
+            first = false;
+            if (header) {
+                continue;
+            }
+            Row row = csv ? parseCsv(line) : parseJson(line);
+            if (row == null) {
+                tally[2]++;
+            } else if (!seen.add(User.keyOf(row.username()))) {
+                tally[1]++;
+            } else {
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    flush(chunk, tally);
+                    chunk.clear();
+                }
+            }
+        }
+        flush(chunk, tally);
+        long elapsed = System.nanoTime() - start;
+        importTime.record(elapsed, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("users.import.rows", "result", "imported").increment(tally[0]);
+        meterRegistry.counter("users.import.rows", "result", "duplicate").increment(tally[1]);
+        meterRegistry.counter("users.import.rows", "result", "invalid").increment(tally[2]);
+        return new ImportResult(tally[0], tally[1], tally[2], TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private void flush(List<Row> chunk, int[] tally) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Set<String> existing = new HashSet<>(userRepository.findExistingUsernameKeys(
+                chunk.stream().map(r -> User.keyOf(r.username())).toList()));
+        List<Row> fresh = new ArrayList<>(chunk.size());
+        for (Row r : chunk) {
+            if (existing.contains(User.keyOf(r.username()))) {
+                tally[1]++;
+            } else {
+                fresh.add(r);
+            }
+        }
+        List<User> users = hash(fresh);
+        try {
+            transactionTemplate.executeWithoutResult(tx -> userRepository.saveAll(users));
+            tally[0] += users.size();
+        } catch (DataIntegrityViolationException e) {
+            // Someone registered one of these names meanwhile; fall back to row-by-row inserts.
+            for (User u : users) {
+                u.setId(null);
+                try {
+                    userRepository.save(u);
+                    tally[0]++;
+                } catch (DataIntegrityViolationException dup) {
+                    tally[1]++;
+                }
+            }
+        }
+    }
+
+    private List<User> hash(List<Row> rows) {
+        List<Callable<String>> tasks = new ArrayList<>(rows.size());
+        for (Row r : rows) {
+            tasks.add(() -> passwordEncoder.encode(r.password()));
+        }
+        List<User> users = new ArrayList<>(rows.size());
+        try {
+            List<Future<String>> hashes = hashers.invokeAll(tasks);
+            for (int i = 0; i < rows.size(); i++) {
+                User u = new User();
+                u.setUsername(rows.get(i).username());
+                u.setPassword(hashes.get(i).get());
+                u.setRole(rows.get(i).role());
+                u.setEnabled(true);
+                users.add(u);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return users;
+    }
+
+    private Row parseJson(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            return row(node.path("username").asText(null), node.path("password").asText(null),
+                    node.path("role").asText(null));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Row parseCsv(String line) {
+        List<String> fields = new ArrayList<>(3);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return row(fields.get(0), fields.size() > 1 ? fields.get(1) : null, fields.size() > 2 ? fields.get(2) : null);
+    }
+
+    private static Row row(String username, String password, String role) {
+        if (username == null || username.isBlank() || password == null || password.isEmpty()) {
+            return null;
+        }
+        String r = role == null || role.isBlank() ? "BIDDER" : role.trim().toUpperCase(Locale.ROOT);
+        return ROLES.contains(r) ? new Row(username.trim(), password, r) : null;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashers.shutdownNow();
+    }
+}
@@ -0,0 +1,230 @@
+package com.eauction.service;
+
+import com.eauction.dto.AuctionView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Inverted watchlist: auction id to the ids of the users watching it.
+ *
+ * <p>Each auction maps to a sorted {@code long[]} that is replaced, never
+ * modified, on a watch toggle, so counts and fan-out iterate a stable array
+ * without locking. The index is loaded at startup by streaming the two id
+ * columns of {@code watchlist} and reloaded every {@code rebuild-ms} to pick up
+ * toggles made on other nodes. Toggles made here while a reload is reading
+ * are recorded and replayed over its result, so the reload never undoes them.
+ *
+ * <p>Memory is about 8 bytes per watch edge plus a fixed cost per watched
+ * auction; {@code auction.watchers.memory.bytes} reports the estimate and the
+ * rebuild log line the cost per million edges.
+ */
+@Service
+public class WatcherIndex {
+    private static final Logger log = LoggerFactory.getLogger(WatcherIndex.class);
+    private static final long[] NONE = new long[0];
+    // Map node, boxed key and array header per watched auction (compressed oops).
+    private static final long BYTES_PER_AUCTION = 32 + 16 + 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final int fetchSize;
+    private final Map<Long, long[]> watchers = new ConcurrentHashMap<>();
+    private final AtomicLong edges = new AtomicLong();
+    // Toggles made while a rebuild runs, by auction and then user: true for watched, false for unwatched.
+    private volatile Map<Long, Map<Long, Boolean>> toggledDuringRebuild;
+    // A j.u.c. lock rather than a monitor, so a virtual thread waiting on the query does not pin its carrier.
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public WatcherIndex(JdbcTemplate jdbcTemplate, SimpMessagingTemplate messagingTemplate, MeterRegistry registry,
+            @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.fetchSize = fetchSize;
+        Gauge.builder("auction.watchers.edges", edges, AtomicLong::get).register(registry);
+        Gauge.builder("auction.watchers.auctions", watchers, Map::size).register(registry);
+        Gauge.builder("auction.watchers.memory.bytes", this, WatcherIndex::memoryBytes).baseUnit("bytes")
+                .register(registry);
+    }
+
+    public int count(long auctionId) {
+        return watchers.getOrDefault(auctionId, NONE).length;
+    }
+
+    /** The current watchers of an auction, sorted. The array must not be modified. */
+    public long[] watchers(long auctionId) {
+        return watchers.getOrDefault(auctionId, NONE);
+    }
+
+    public AuctionView annotate(AuctionView view) {
+        return view.withWatchers(count(view.id()));
+    }
+
+    public void watched(long auctionId, long userId) {
+        toggle(auctionId, userId, true);
+    }
+
+    public void unwatched(long auctionId, long userId) {
+        toggle(auctionId, userId, false);
+    }
+
+    // Recorded inside compute, so it is ordered with the rebuild's per-auction swap.
+    private void toggle(long auctionId, long userId, boolean watched) {
+        watchers.compute(auctionId, (id, current) -> {
+            Map<Long, Map<Long, Boolean>> toggled = toggledDuringRebuild;
+            if (toggled != null) {
+                toggled.computeIfAbsent(id, k -> new ConcurrentHashMap<>()).put(userId, watched);
+            }
+            long[] ids = current == null ? NONE : current;
+            long[] next = watched ? with(ids, userId) : without(ids, userId);
+            if (next != ids) {
+                edges.addAndGet(watched ? 1 : -1);
+            }
+            return next.length == 0 ? null : next;
+        });
+    }
+
+    private static long[] with(long[] ids, long userId) {
+        int at = Arrays.binarySearch(ids, userId);
+        if (at >= 0) {
+            return ids;
+        }
+        int insert = -at - 1;
+        long[] next = new long[ids.length + 1];
+        System.arraycopy(ids, 0, next, 0, insert);
+        next[insert] = userId;
+        System.arraycopy(ids, insert, next, insert + 1, ids.length - insert);
+        return next;
+    }
+
+    private static long[] without(long[] ids, long userId) {
+        int at = Arrays.binarySearch(ids, userId);
+        if (at < 0) {
+            return ids;
+        }
+        long[] next = new long[ids.length - 1];
+        System.arraycopy(ids, 0, next, 0, at);
+        System.arraycopy(ids, at + 1, next, at, ids.length - at - 1);
+        return next;
+    }
+
+    /** Sends {@code payload} to {@code /user/{id}/watchlist} of every watcher of the auction. */
+    public int push(long auctionId, Object payload) {
+        long[] ids = watchers(auctionId);
+        for (long userId : ids) {
+            messagingTemplate.convertAndSend("/user/" + userId + "/watchlist", payload);
+        }
+        return ids.length;
+    }
+
+    @EventListener
+    public void onLifecycle(AuctionLifecycleEvent event) {
+        for (Long id : event.auctionIds()) {
+            push(id, Map.of("auctionId", id, "status", event.status()));
+        }
+    }
+
+    // Ahead of LiveAuctionIndex, so its first snapshot already carries the counts.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${auction.watchers.rebuild-ms:600000}",
+            fixedDelayString = "${auction.watchers.rebuild-ms:600000}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            load();
+        } finally {
+            toggledDuringRebuild = null;
+            rebuildLock.unlock();
+        }
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        Map<Long, Map<Long, Boolean>> toggled = new ConcurrentHashMap<>();
+        toggledDuringRebuild = toggled;
+        Map<Long, long[]> fresh = new HashMap<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "select auction_id, user_id from watchlist order by auction_id, user_id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J buffers the whole result unless asked to stream row by row.
+            ps.setFetchSize(con.getMetaData().getDatabaseProductName().startsWith("MySQL")
+                    ? Integer.MIN_VALUE : fetchSize);
+            return ps;
+        }, (ResultSetExtractor<Void>) rs -> {
+            long auction = -1;
+            long[] buf = new long[16];
+            int n = 0;
+            while (rs.next()) {
+                long a = rs.getLong(1);
+                long u = rs.getLong(2);
+                if (a != auction) {
+                    if (n > 0) {
+                        fresh.put(auction, Arrays.copyOf(buf, n));
+                    }
+                    auction = a;
+                    n = 0;
+                }
+                // Duplicate rows are possible: the table has no unique constraint.
+                if (n > 0 && buf[n - 1] == u) {
+                    continue;
+                }
+                if (n == buf.length) {
+                    buf = Arrays.copyOf(buf, n * 2);
+                }
+                buf[n++] = u;
+            }
+            if (n > 0) {
+                fresh.put(auction, Arrays.copyOf(buf, n));
+            }
+            return null;
+        });
+        // Swapped one auction at a time, replaying that auction's toggles under the same compute as toggle().
+        Set<Long> ids = new HashSet<>(watchers.keySet());
+        ids.addAll(fresh.keySet());
+        for (Long id : ids) {
+            watchers.compute(id, (k, current) -> {
+                long[] next = fresh.getOrDefault(k, NONE);
+                for (Map.Entry<Long, Boolean> t : toggled.getOrDefault(k, Map.of()).entrySet()) {
+                    next = t.getValue() ? with(next, t.getKey()) : without(next, t.getKey());
+                }
+                return next.length == 0 ? null : next;
+            });
+        }
+        long count = 0;
+        for (long[] w : watchers.values()) {
+            count += w.length;
+        }
+        edges.set(count);
+        long ms = (System.nanoTime() - start) / 1_000_000;
+        log.info("Watcher index loaded {} edges over {} auctions in {} ms, {} MB per million edges", count,
+                watchers.size(), ms, count == 0 ? "-" : String.format("%.1f", memoryBytes() / count));
+    }
+
+    private double memoryBytes() {
+        return edges.get() * Long.BYTES + watchers.size() * BYTES_PER_AUCTION;
+    }
+}